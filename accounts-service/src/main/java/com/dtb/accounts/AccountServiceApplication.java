@@ -1,14 +1,21 @@
 package com.dtb.accounts;
 
+import com.dtb.accounts.config.AccountExportProperties;
+import com.dtb.accounts.config.FeignHttpClientConfiguration;
+import com.dtb.accounts.config.FeignHttpClientProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.cloud.openfeign.FeignAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 @SpringBootApplication
 //@SpringBootConfiguration
-@EnableFeignClients(basePackages = "com.dtb.accounts.feigns")
+@EnableFeignClients(basePackages = "com.dtb.accounts.feigns", defaultConfiguration = FeignHttpClientConfiguration.class)
 @ImportAutoConfiguration({FeignAutoConfiguration.class})
+@EnableScheduling
+@EnableConfigurationProperties({AccountExportProperties.class, FeignHttpClientProperties.class})
 public class AccountServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AccountServiceApplication.class, args);
@@ -0,0 +1,15 @@
+package com.dtb.accounts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "accounts.export")
+public class AccountExportProperties {
+    /* Accounts whose cards are fetched with one batch call and written before the next are read*/
+    private int chunkSize = 1000;
+    /* The response streams until every account is written, far longer than spring.mvc.async.request-timeout*/
+    private Duration requestTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,17 @@
+package com.dtb.accounts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "cards-service.cache")
+public class CardCacheProperties {
+    /* Maximum number of accounts whose cards are kept in memory*/
+    private long maximumSize = 10_000;
+    /* Upper bound on staleness if a change notification from card-service is lost*/
+    private Duration timeToLive = Duration.ofMinutes(5);
+    /* How long the last fetched cards of an account may still be served, marked stale, while card-service is down*/
+    private Duration staleTimeToLive = Duration.ofHours(24);
+}
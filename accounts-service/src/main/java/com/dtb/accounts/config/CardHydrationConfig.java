@@ -0,0 +1,76 @@
+package com.dtb.accounts.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+import java.util.concurrent.RejectedExecutionException;
+
+@Configuration
+@EnableConfigurationProperties({CardHydrationProperties.class, CardCacheProperties.class})
+public class CardHydrationConfig {
+    /**
+     * Dedicated pool for card-service lookups so a slow card-service cannot exhaust
+     * the request threads. Queue depth, active workers and completed calls are published
+     * as executor.* metrics tagged name=cardHydration, rejections as card.hydration.rejected.
+     * With spring.threads.virtual.enabled the workers are virtual threads, the pool still bounds the calls.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor cardHydrationExecutor(CardHydrationProperties properties, MeterRegistry meterRegistry,
+                                                        Environment environment) {
+        Counter rejected = Counter.builder("card.hydration.rejected")
+                .description("Card lookups rejected because the hydration queue was full")
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getMaxConcurrency());
+        executor.setMaxPoolSize(properties.getMaxConcurrency());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("card-hydration-");
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("card-hydration-").getVirtualThreadFactory());
+        }
+        /* Per-account lookups run here, the decorator carries the request's trace context over to them*/
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Card hydration queue is full");
+        });
+        executor.initialize();
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "cardHydration", Collections.emptyList());
+        return executor;
+    }
+
+    /**
+     * Opens on failed or slow card-service calls so hydration stops waiting on the Feign timeouts,
+     * configured under resilience4j.circuitbreaker.instances.cards-service. Its state and call outcomes
+     * are published as resilience4j.circuitbreaker.* metrics tagged name=cards-service.
+     */
+    @Bean
+    public CircuitBreaker cardServiceCircuitBreaker(CircuitBreakerRegistry registry) {
+        return registry.circuitBreaker("cards-service");
+    }
+
+    /**
+     * Caps the card-service calls in flight from this instance, configured under
+     * resilience4j.bulkhead.instances.cards-service, published as resilience4j.bulkhead.* metrics.
+     */
+    @Bean
+    public Bulkhead cardServiceBulkhead(BulkheadRegistry registry) {
+        return registry.bulkhead("cards-service");
+    }
+}
@@ -0,0 +1,17 @@
+package com.dtb.accounts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "cards-service.hydration")
+public class CardHydrationProperties {
+    /* Maximum number of card-service calls in flight at once*/
+    private int maxConcurrency = 16;
+    /* Calls allowed to wait for a free worker before new ones are rejected*/
+    private int queueCapacity = 200;
+    /* Deadline for all card lookups of a single request*/
+    private Duration timeout = Duration.ofSeconds(2);
+}
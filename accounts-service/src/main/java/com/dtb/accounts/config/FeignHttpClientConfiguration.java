@@ -0,0 +1,67 @@
+package com.dtb.accounts.config;
+
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Default configuration of every Feign client (see @EnableFeignClients), created once per client in its own
+ * context. Not a @Configuration so component scanning leaves it to Feign.
+ */
+public class FeignHttpClientConfiguration {
+    /* Only created for clients on HTTP/1.1, closed with the client's context*/
+    @Bean(destroyMethod = "close")
+    @Lazy
+    public CloseableHttpClient pooledHttpClient(@Value("${spring.cloud.openfeign.client.name}") String clientName,
+                                                FeignHttpClientProperties properties, MeterRegistry registry) {
+        FeignHttpClientProperties.Client client = properties.forClient(clientName);
+
+        MeteredConnectionManager connectionManager = new MeteredConnectionManager(clientName, registry);
+        connectionManager.setMaxTotal(client.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(client.getMaxConnectionsPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setValidateAfterInactivity(TimeValue.of(client.getValidateAfterInactivity()))
+                .build());
+        /* httpcomponents.httpclient.pool.total.max/connections{state=leased|available}/pending tagged httpclient=<name>*/
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, clientName).bindTo(registry);
+
+        TimeValue keepAlive = TimeValue.of(client.getKeepAlive());
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(client.getConnectionRequestTimeout()))
+                        .build())
+                /* Tomcat sends no Keep-Alive header, without a limit here a connection would be kept until the server drops it*/
+                .setKeepAliveStrategy((response, context) -> keepAlive)
+                .evictIdleConnections(keepAlive)
+                .evictExpiredConnections()
+                .disableCookieManagement()
+                .build();
+    }
+
+    /* Connect and read timeouts come per call from the client's Request.Options. With instances configured the
+       calls are spread over them and GETs may be hedged, see HedgingClient*/
+    @Bean
+    public Client feignClient(@Value("${spring.cloud.openfeign.client.name}") String clientName,
+                              FeignHttpClientProperties properties, ObjectProvider<CloseableHttpClient> pooledHttpClient,
+                              MeterRegistry registry) {
+        FeignHttpClientProperties.Client client = properties.forClient(clientName);
+        Client httpClient = client.isHttp2() ? new Http2Client() : new ApacheHttp5Client(pooledHttpClient.getObject());
+        if (client.getInstances().isEmpty()) {
+            return httpClient;
+        }
+        return new HedgingClient(clientName, httpClient, client, registry);
+    }
+}
@@ -0,0 +1,58 @@
+package com.dtb.accounts.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Connection handling per Feign client, keyed by the client name e.g. feign-http.clients.cards-service.max-connections.
+   Connect and read timeouts are the usual spring.cloud.openfeign.client.config.<name>.connect-timeout/read-timeout*/
+@Data
+@ConfigurationProperties(prefix = "feign-http")
+public class FeignHttpClientProperties {
+    private Map<String, Client> clients = new HashMap<>();
+
+    public Client forClient(String name) {
+        return clients.getOrDefault(name, new Client());
+    }
+
+    @Data
+    public static class Client {
+        /* One multiplexed HTTP/2 connection (java.net.http, h2c on plain http) instead of the pool below*/
+        private boolean http2 = false;
+        private int maxConnections = 100;
+        /* A client calls a single host, so this is the limit in practice*/
+        private int maxConnectionsPerRoute = 50;
+        /* Longest wait for a pooled connection when all of them are in use, then the call fails*/
+        private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+        /* How long an idle connection is kept for reuse, below the server's keep-alive timeout so the server does
+           not close it first*/
+        private Duration keepAlive = Duration.ofSeconds(30);
+        /* Idle connections older than this are checked before they are reused*/
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        /* Base URLs (scheme://host:port) of the instances, called in turn. Empty: the client's url only. A call an
+           instance refuses the connection for goes to the next one, a connect timeout is only covered by hedging*/
+        private List<String> instances = new ArrayList<>();
+        private Hedging hedging = new Hedging();
+    }
+
+    /* A call of a @Hedgeable Feign method still unanswered after the delay is sent to the next instance as well, the
+       first response is used. Calls of other methods are never sent twice*/
+    @Data
+    public static class Hedging {
+        /* Needs at least two instances*/
+        private boolean enabled = false;
+        /* The delay is this percentile of the recent response times, so about (1 - percentile) of the hedgeable calls are hedged*/
+        private double delayPercentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(10);
+        /* Response times the percentile is taken over, no hedging until minSamples of them were seen*/
+        private int windowSize = 1000;
+        private int minSamples = 100;
+        /* Upper bound on hedges per hedgeable call, so a slow card-service is not sent twice the load*/
+        private double maxRatio = 0.1;
+    }
+}
@@ -0,0 +1,301 @@
+package com.dtb.accounts.config;
+
+import com.dtb.accounts.feigns.Hedgeable;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the calls of a Feign client to a static list of instances in turn, a call the instance refuses the
+ * connection for goes to the next one (http.client.failover). Optionally hedges the calls of {@link Hedgeable}
+ * methods: when the response is not there after the hedge delay, the request also goes to the next instance and
+ * whichever answers first is used, the other response is closed when it arrives. The delay is a percentile of the
+ * recent response times of first attempts. Hedges sent, won by the hedge and skipped for the budget are counted as
+ * http.client.hedge.issued/won/throttled, the current delay is http.client.hedge.delay, tagged with the client name.
+ */
+@Slf4j
+class HedgingClient implements Client, AutoCloseable {
+    private final Client delegate;
+    private final List<String> instances;
+    private final AtomicInteger next = new AtomicInteger();
+    /* Null when hedging is off, calls then run on the caller's thread*/
+    private final ThreadPoolExecutor executor;
+    private final LatencyWindow latencies;
+    private final HedgeBudget budget;
+    private final Counter issued;
+    private final Counter won;
+    private final Counter throttled;
+    private final Counter failedOver;
+
+    HedgingClient(String clientName, Client delegate, FeignHttpClientProperties.Client properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.instances = properties.getInstances().stream()
+                .map(instance -> instance.endsWith("/") ? instance.substring(0, instance.length() - 1) : instance)
+                .toList();
+        FeignHttpClientProperties.Hedging hedging = properties.getHedging();
+        this.latencies = new LatencyWindow(hedging);
+        this.budget = new HedgeBudget(hedging.getMaxRatio());
+        this.issued = counter("http.client.hedge.issued", "Requests also sent to a second instance", clientName, meterRegistry);
+        this.won = counter("http.client.hedge.won", "Hedged requests answered first by the second instance", clientName, meterRegistry);
+        this.throttled = counter("http.client.hedge.throttled", "Hedges not sent because the hedge budget was spent",
+                clientName, meterRegistry);
+        this.failedOver = counter("http.client.failover", "Requests sent to the next instance because the first refused the connection",
+                clientName, meterRegistry);
+
+        if (hedging.isEnabled() && instances.size() < 2) {
+            log.warn("Hedging of {} needs at least two instances, {} configured", clientName, instances.size());
+        }
+        if (hedging.isEnabled() && instances.size() >= 2) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(clientName + "-hedging-");
+            threadFactory.setDaemon(true);
+            /* At most one thread per pooled connection, a call that finds none free runs unhedged on the caller*/
+            this.executor = new ThreadPoolExecutor(0, properties.getMaxConnections(), 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), threadFactory);
+            Gauge.builder("http.client.hedge.delay", latencies, LatencyWindow::delayMillis)
+                    .description("Time a hedgeable request is given before it is hedged, NaN until enough responses were seen")
+                    .baseUnit("milliseconds")
+                    .tag("client", clientName)
+                    .register(meterRegistry);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    private static Counter counter(String name, String description, String clientName, MeterRegistry meterRegistry) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("client", clientName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        int instance = Math.floorMod(next.getAndIncrement(), instances.size());
+        Request primary = forInstance(request, instance);
+        if (executor == null || !isHedgeable(request)) {
+            return orNextInstance(() -> delegate.execute(primary, options), request, instance, options);
+        }
+        budget.earn();
+        long delayNanos = latencies.delayNanos();
+        if (delayNanos < 0) {
+            return orNextInstance(() -> timed(primary, options), request, instance, options);
+        }
+
+        CompletableFuture<Response> primaryCall;
+        try {
+            primaryCall = submit(primary, options, true);
+        } catch (RejectedExecutionException e) {
+            return orNextInstance(() -> timed(primary, options), request, instance, options);
+        }
+        Response response = orNextInstance(() -> await(primaryCall, delayNanos), request, instance, options);
+        if (response != null) {
+            return response;
+        }
+        if (!budget.trySpend()) {
+            throttled.increment();
+            return orNextInstance(() -> await(primaryCall, -1), request, instance, options);
+        }
+        CompletableFuture<Response> hedgeCall;
+        try {
+            hedgeCall = submit(forInstance(request, instance + 1), options, false);
+        } catch (RejectedExecutionException e) {
+            return orNextInstance(() -> await(primaryCall, -1), request, instance, options);
+        }
+        issued.increment();
+        return await(firstResponse(primaryCall, hedgeCall), -1);
+    }
+
+    /* Only requests of Feign methods marked @Hedgeable are safe to send twice, whatever their HTTP method*/
+    private static boolean isHedgeable(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        MethodMetadata metadata = template == null ? null : template.methodMetadata();
+        return metadata != null && metadata.method() != null && metadata.method().isAnnotationPresent(Hedgeable.class);
+    }
+
+    /* A refused connection means the request never reached the instance, so it goes to the next one once, for
+       any method. Only used while the request went to a single instance, a hedge already tried the next one*/
+    private Response orNextInstance(Attempt attempt, Request request, int instance, Request.Options options) throws IOException {
+        try {
+            return attempt.execute();
+        } catch (ConnectException e) {
+            if (instances.size() < 2) {
+                throw e;
+            }
+            failedOver.increment();
+            log.debug("Could not connect to {}, sending the request to the next instance: {}",
+                    instances.get(instance), e.getMessage());
+            return delegate.execute(forInstance(request, instance + 1), options);
+        }
+    }
+
+    private Request forInstance(Request request, int index) {
+        URI url = URI.create(request.url());
+        String pathAndQuery = url.getRawPath() + (url.getRawQuery() == null ? "" : "?" + url.getRawQuery());
+        return Request.create(request.httpMethod(), instances.get(Math.floorMod(index, instances.size())) + pathAndQuery,
+                request.headers(), request.body(), request.charset(), request.requestTemplate());
+    }
+
+    private CompletableFuture<Response> submit(Request request, Request.Options options, boolean timed) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return timed ? timed(request, options) : delegate.execute(request, options);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /* Only first attempts count towards the delay, hedges would hide how slow the instances answer*/
+    private Response timed(Request request, Request.Options options) throws IOException {
+        long start = System.nanoTime();
+        Response response = delegate.execute(request, options);
+        latencies.record(System.nanoTime() - start);
+        return response;
+    }
+
+    /* Fails only when both calls failed, with the error of the last one*/
+    private CompletableFuture<Response> firstResponse(CompletableFuture<Response> primaryCall, CompletableFuture<Response> hedgeCall) {
+        CompletableFuture<Response> first = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        primaryCall.whenComplete((response, error) -> complete(first, response, error, failed, false));
+        hedgeCall.whenComplete((response, error) -> complete(first, response, error, failed, true));
+        return first;
+    }
+
+    private void complete(CompletableFuture<Response> first, Response response, Throwable error, AtomicInteger failed,
+                          boolean hedge) {
+        if (error != null) {
+            if (failed.incrementAndGet() == 2) {
+                first.completeExceptionally(error);
+            }
+        } else if (first.complete(response)) {
+            if (hedge) {
+                won.increment();
+            }
+        } else {
+            /* The slower response, its connection goes back to the pool*/
+            response.close();
+        }
+    }
+
+    /* Null when the call is not done within timeoutNanos, a negative timeout waits until it is*/
+    private static Response await(CompletableFuture<Response> call, long timeoutNanos) throws IOException {
+        try {
+            return timeoutNanos < 0 ? call.get() : call.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            call.thenAccept(Response::close);
+            throw new InterruptedIOException("Interrupted while waiting for the response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        Response execute() throws IOException;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /* The latest response times in a ring, the percentile is recomputed every tenth of the window rather than per call*/
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private final double percentile;
+        private final int minSamples;
+        private final long minDelayNanos;
+        private final int recomputeEvery;
+        private long recorded;
+        private volatile long delayNanos = -1;
+
+        LatencyWindow(FeignHttpClientProperties.Hedging hedging) {
+            this.samples = new long[Math.max(1, hedging.getWindowSize())];
+            this.percentile = hedging.getDelayPercentile();
+            this.minSamples = Math.max(1, Math.min(hedging.getMinSamples(), samples.length));
+            this.minDelayNanos = hedging.getMinDelay().toNanos();
+            this.recomputeEvery = Math.max(1, samples.length / 10);
+        }
+
+        synchronized void record(long nanos) {
+            samples[(int) (recorded % samples.length)] = nanos;
+            recorded++;
+            if (recorded == minSamples || recorded > minSamples && recorded % recomputeEvery == 0) {
+                int count = (int) Math.min(recorded, samples.length);
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int index = Math.min(count - 1, Math.max(0, (int) Math.ceil(percentile * count) - 1));
+                delayNanos = Math.max(minDelayNanos, sorted[index]);
+            }
+        }
+
+        long delayNanos() {
+            return delayNanos;
+        }
+
+        double delayMillis() {
+            long delay = delayNanos;
+            return delay < 0 ? Double.NaN : delay / 1_000_000.0;
+        }
+    }
+
+    /* Every hedgeable request earns maxRatio of a hedge and a hedge spends a whole one. Only a few are saved up, so a quiet
+       period is not followed by a burst of hedges*/
+    private static final class HedgeBudget {
+        private static final double MAX_SAVED = 10;
+        private final double ratio;
+        private double balance;
+
+        HedgeBudget(double ratio) {
+            this.ratio = ratio;
+        }
+
+        synchronized void earn() {
+            balance = Math.min(MAX_SAVED, balance + ratio);
+        }
+
+        synchronized boolean trySpend() {
+            if (balance < 1) {
+                return false;
+            }
+            balance--;
+            return true;
+        }
+    }
+}
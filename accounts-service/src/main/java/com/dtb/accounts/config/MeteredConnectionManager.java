@@ -0,0 +1,68 @@
+package com.dtb.accounts.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Times how long a call waits for a pooled connection (http.client.pool.wait) and how long opening a new
+ * connection takes (http.client.pool.connect), tagged with the client name. A connect count close to the
+ * request count means connections are not being reused.
+ */
+class MeteredConnectionManager extends PoolingHttpClientConnectionManager {
+    private final Timer waitTimer;
+    private final Timer connectTimer;
+
+    MeteredConnectionManager(String clientName, MeterRegistry meterRegistry) {
+        this.waitTimer = Timer.builder("http.client.pool.wait")
+                .description("Time spent waiting for a pooled connection")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        this.connectTimer = Timer.builder("http.client.pool.connect")
+                .description("Time spent opening new connections")
+                .tag("client", clientName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest lease = super.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return lease.get(timeout);
+                } finally {
+                    waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return lease.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue timeout, HttpContext context) throws IOException {
+        long start = System.nanoTime();
+        try {
+            super.connect(endpoint, timeout, context);
+        } finally {
+            connectTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.dtb.accounts.controllers;
 
+import com.dtb.accounts.config.AccountExportProperties;
 import com.dtb.accounts.dtos.AccountDto;
 import com.dtb.accounts.dtos.AccountsListResponseDto;
 import com.dtb.accounts.dtos.CreateAccountDto;
+import com.dtb.accounts.enums.ExportFormat;
+import com.dtb.accounts.services.AccountExporter;
 import com.dtb.accounts.services.AccountService;
+import com.dtb.common.web.AsyncRequestTimeout;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 
@@ -18,24 +26,49 @@ import java.time.LocalDateTime;
 @Tag(name = "Accounts API Operations",description = "Operations for managing accounts")
 public class AccountsController {
     private final AccountService accountService;
+    private final AccountExporter accountExporter;
+    private final AccountExportProperties accountExportProperties;
 
-    public AccountsController(AccountService accountService) {
+    public AccountsController(AccountService accountService, AccountExporter accountExporter,
+                              AccountExportProperties accountExportProperties) {
         this.accountService = accountService;
+        this.accountExporter = accountExporter;
+        this.accountExportProperties = accountExportProperties;
     }
     @GetMapping
-    @Operation(summary = "Get Accounts with Cards Details")
+    @Operation(summary = "Get Accounts with Cards Details", description = "Pass after and/or limit to page by cursor instead of page number")
     public ResponseEntity<AccountsListResponseDto> getAllCustomers(
             @RequestParam(required = false) String iban,
             @RequestParam(required = false)  String bicSwift,
             @RequestParam(required = false) String cardAlias,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Set to false to skip the total count and only report hasNext, pages filtered by cardAlias never count")
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size in cursor mode") @RequestParam(required = false) Integer limit) {
 
+        if (after != null || limit != null) {
+            return ResponseEntity.ok(accountService.findAccountsAfter(iban, bicSwift, cardAlias, after, limit != null ? limit : size));
+        }
         AccountsListResponseDto customerListResponse = accountService.findAccounts(
-                iban, bicSwift, cardAlias, page, size);
+                iban, bicSwift, cardAlias, page, size, withTotal);
 
         return ResponseEntity.ok(customerListResponse);
     }
+    @GetMapping("/export")
+    @Operation(summary = "Export all accounts with their cards",
+            description = "Streams every account in id order, as NDJSON with one account per line or as CSV with one row per card. "
+                    + "The last record is a summary, status COMPLETE or FAILED when the export stopped early (a #COMPLETE/#FAILED row in CSV)")
+    public ResponseEntity<StreamingResponseBody> exportAccounts(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                                HttpServletRequest request) {
+        AsyncRequestTimeout.set(request, accountExportProperties.getRequestTimeout());
+        StreamingResponseBody export = out -> accountExporter.export(format, out);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=accounts." + format.getFileExtension())
+                .body(export);
+    }
     @GetMapping("/{id}")
     @Operation(summary = "Get account by Id")
     public ResponseEntity<AccountDto> findAccountById ( @PathVariable Long id){
@@ -0,0 +1,32 @@
+package com.dtb.accounts.controllers;
+
+import com.dtb.accounts.dtos.CardChangedEventDto;
+import com.dtb.accounts.services.CardCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/card-events")
+@Tag(name = "Card Events", description = "Card change notifications from card-service")
+@Slf4j
+public class CardEventsController {
+    private final CardCache cardCache;
+
+    public CardEventsController(CardCache cardCache) {
+        this.cardCache = cardCache;
+    }
+    @PostMapping
+    @Operation(summary = "Invalidate the cached cards of an account")
+    public ResponseEntity<Void> cardsChanged(@Valid @RequestBody CardChangedEventDto event) {
+        log.debug("Card {} {} for account {}", event.getCardId(), event.getChangeType(), event.getAccountId());
+        cardCache.invalidate(event.getAccountId());
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -15,6 +15,10 @@ public class AccountDto {
     private String iban;
     private String bicSwift;
     private List<CardInfo> cards;
+    /* Set when card-service did not answer in time, cards is then empty rather than authoritative*/
+    private boolean cardsUnavailable;
+    /* Set when card-service could not be reached and cards is the last list fetched for the account, being refreshed*/
+    private boolean cardsStale;
 
     /*public AccountDto(String bicSwift, String customerId, String iban) {
         this.bicSwift=bicSwift;
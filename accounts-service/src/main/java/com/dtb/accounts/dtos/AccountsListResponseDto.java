@@ -1,9 +1,11 @@
 package com.dtb.accounts.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 @Data
 @AllArgsConstructor
@@ -14,4 +16,17 @@ public class AccountsListResponseDto {
     private int size;
     private long totalItems;
     private int totalPages;
+    /* Cursor mode only: pass as ?after= to get the next page, null on the last page.
+       Totals are not computed in cursor mode and are reported as -1*/
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    /* Set when the page was read without a count query (?withTotal=false or approximate totals)*/
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasNext;
+    /* Set when totalItems comes from the periodically refreshed table estimate rather than an exact count.
+       totalsAsOf is when the estimate was taken, it is never older than the configured max staleness*/
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean totalsApproximate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime totalsAsOf;
 }
@@ -0,0 +1,16 @@
+package com.dtb.accounts.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardChangedEventDto {
+    @NotNull(message = "Account id is mandatory")
+    private Long accountId;
+    private Long cardId;
+    private String changeType;
+}
@@ -0,0 +1,29 @@
+package com.dtb.accounts.enums;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+public enum ExportFormat {
+    /* One account per line with its cards nested, then the summary line*/
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    /* One row per card, accounts without cards get a single row with empty card columns. The summary is a last
+       comment row: #COMPLETE,<accounts> or #FAILED,<accounts>,<error>*/
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    ExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
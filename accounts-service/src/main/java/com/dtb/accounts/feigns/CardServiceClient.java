@@ -4,12 +4,29 @@ import com.dtb.accounts.dtos.AccountDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
+import java.util.Map;
 
 @FeignClient(name = "cards-service", url = "${cards-service.url}")
 public interface CardServiceClient {
-/*Feigning the card service*/
-    @GetMapping("/api/cards/{id}/accounts")
+/*Feigning the card service. The card lookups go to cards-service.read-path, /api/cards or the R2DBC /api/reactive/cards.
+  All of them are reads, @Hedgeable lets the slow ones go to a second instance as well*/
+    @Hedgeable
+    @GetMapping("${cards-service.read-path:/api/cards}/{id}/accounts")
     List<AccountDto.CardInfo> getCardsByAccountId(@PathVariable("id") Long accountId);
+
+    /*Matching account ids in id order after afterAccountId, card-service returns at most 1000 per call*/
+    @Hedgeable
+    @GetMapping("/api/cards/accounts")
+    List<Long> findAccountIdsByCardAlias(@RequestParam("cardAlias") String cardAlias, @RequestParam("after") Long afterAccountId,
+                                         @RequestParam("limit") int limit);
+
+    /*One round-trip for a whole page of accounts, cards grouped by account id. A POST only for the size of the id list*/
+    @Hedgeable
+    @PostMapping("${cards-service.read-path:/api/cards}/accounts/batch")
+    Map<Long, List<AccountDto.CardInfo>> getCardsByAccountIds(@RequestBody List<Long> accountIds);
 }
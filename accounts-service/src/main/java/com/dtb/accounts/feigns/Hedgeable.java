@@ -0,0 +1,18 @@
+package com.dtb.accounts.feigns;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Feign method as idempotent, so its request may be sent to two instances at once when hedging is
+ * enabled for the client (feign-http.clients.&lt;name&gt;.hedging.*). Only for calls that change nothing on the
+ * server, whatever their HTTP method: requests of unmarked methods are never hedged.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Hedgeable {
+}
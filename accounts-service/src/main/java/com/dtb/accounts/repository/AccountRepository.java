@@ -2,16 +2,60 @@ package com.dtb.accounts.repository;
 
 import com.dtb.accounts.dtos.AccountDto;
 import com.dtb.accounts.models.Account;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
     @Query("SELECT a FROM Account a WHERE " +
             "(:iban IS NULL OR a.iban LIKE %:iban%) AND " +
             "(:bicSwift IS NULL OR a.bicSwift LIKE %:bicSwift%)")
     Page<Account> findWithFilters(@Param("iban") String iban, @Param("bicSwift") String bicSwift, Pageable pageable);
+
+    /*Which of the given accounts pass the filters, in id order. Card alias matches arrive from card-service
+      a chunk at a time and are intersected with the filters chunk by chunk*/
+    @Query("SELECT a.id FROM Account a WHERE a.id IN :ids AND " +
+            "(:iban IS NULL OR a.iban LIKE %:iban%) AND " +
+            "(:bicSwift IS NULL OR a.bicSwift LIKE %:bicSwift%) ORDER BY a.id")
+    List<Long> findIdsWithFilters(@Param("iban") String iban, @Param("bicSwift") String bicSwift,
+                                  @Param("ids") Collection<Long> ids);
+
+    /*Slice of the query above: no count query, one extra row tells whether a next page exists*/
+    @Query("SELECT a FROM Account a WHERE " +
+            "(:iban IS NULL OR a.iban LIKE %:iban%) AND " +
+            "(:bicSwift IS NULL OR a.bicSwift LIKE %:bicSwift%)")
+    Slice<Account> findSliceWithFilters(@Param("iban") String iban, @Param("bicSwift") String bicSwift, Pageable pageable);
+
+    /*Keyset pages: rows after the given id in id order, no count query*/
+    @Query("SELECT a FROM Account a WHERE a.id > :afterId AND " +
+            "(:iban IS NULL OR a.iban LIKE %:iban%) AND " +
+            "(:bicSwift IS NULL OR a.bicSwift LIKE %:bicSwift%) ORDER BY a.id")
+    List<Account> findWithFiltersAfter(@Param("iban") String iban, @Param("bicSwift") String bicSwift,
+                                       @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT a FROM Account a WHERE a.id IN :ids AND a.id > :afterId AND " +
+            "(:iban IS NULL OR a.iban LIKE %:iban%) AND " +
+            "(:bicSwift IS NULL OR a.bicSwift LIKE %:bicSwift%) ORDER BY a.id")
+    List<Account> findWithFiltersAfter(@Param("iban") String iban, @Param("bicSwift") String bicSwift,
+                                       @Param("ids") Collection<Long> ids, @Param("afterId") Long afterId, Limit limit);
+
+    /*Forward-only cursor over all accounts for exports, rows arrive from the database 1000 at a time and are
+      not dirty checked. Has to be consumed inside a transaction and closed*/
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a FROM Account a ORDER BY a.id")
+    Stream<Account> streamAllByOrderById();
 }
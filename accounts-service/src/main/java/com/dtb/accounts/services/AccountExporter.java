@@ -0,0 +1,170 @@
+package com.dtb.accounts.services;
+
+import com.dtb.accounts.config.AccountExportProperties;
+import com.dtb.accounts.dtos.AccountDto;
+import com.dtb.accounts.enums.ExportFormat;
+import com.dtb.accounts.models.Account;
+import com.dtb.accounts.repository.AccountRepository;
+import com.dtb.common.dtos.ExportSummaryDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes every account with its cards to a stream, in id order. Accounts are read through a forward-only
+ * cursor inside one read-only transaction, their cards fetched from card-service with one batch call per
+ * {@code accounts.export.chunk-size} accounts. The batch calls go through the same circuit breaker and
+ * bulkhead as the card hydration. Each chunk is written and flushed before the next is read, so memory use
+ * does not depend on the number of accounts.
+ */
+@Service
+@Slf4j
+public class AccountExporter {
+    private static final String CSV_HEADER = "accountId,customerId,iban,bicSwift,cardsUnavailable,cardId,cardType,cardAlias";
+
+    private final AccountRepository accountRepository;
+    private final CardHydrator cardHydrator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter lineWriter;
+    private final AccountExportProperties properties;
+
+    public AccountExporter(AccountRepository accountRepository, CardHydrator cardHydrator, EntityManager entityManager,
+                           PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                           AccountExportProperties properties) {
+        this.accountRepository = accountRepository;
+        this.cardHydrator = cardHydrator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.lineWriter = objectMapper.writer();
+        this.properties = properties;
+    }
+
+    /* Ends with an ExportSummaryDto line, or a "#" comment row in CSV, also when reading the accounts failed midway*/
+    public long export(ExportFormat format, OutputStream target) throws IOException {
+        OutputStream out = new BufferedOutputStream(target, 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            writeLine(out, CSV_HEADER);
+        }
+        ExportSummaryDto summary = new ExportSummaryDto();
+        try {
+            /* Postgres only honours the fetch size inside a transaction, otherwise the driver reads the whole result*/
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Account> accounts = accountRepository.streamAllByOrderById()) {
+                    exportChunks(accounts.iterator(), format, out, summary);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            /* The client is gone, nothing more can be written*/
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            summary.setStatus(ExportSummaryDto.Status.FAILED);
+            summary.setError("Export stopped after " + summary.getExported() + " accounts: " + e.getMessage());
+            writeSummary(out, format, summary);
+            out.flush();
+            throw e;
+        }
+        writeSummary(out, format, summary);
+        out.flush();
+        log.info("Exported {} accounts as {}", summary.getExported(), format);
+        return summary.getExported();
+    }
+
+    private void exportChunks(Iterator<Account> accounts, ExportFormat format, OutputStream out,
+                              ExportSummaryDto summary) throws IOException {
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        List<Account> chunk = new ArrayList<>(chunkSize);
+        while (accounts.hasNext()) {
+            chunk.add(accounts.next());
+            if (chunk.size() == chunkSize || !accounts.hasNext()) {
+                writeChunk(chunk, format, out);
+                summary.setExported(summary.getExported() + chunk.size());
+                chunk.clear();
+                /* Written accounts are not needed anymore, keep the persistence context from growing with the export*/
+                entityManager.clear();
+            }
+        }
+    }
+
+    private void writeSummary(OutputStream out, ExportFormat format, ExportSummaryDto summary) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeLine(out, "#" + summary.getStatus() + "," + summary.getExported()
+                    + (summary.getError() == null ? "" : "," + csv(summary.getError())));
+        } else {
+            out.write(lineWriter.writeValueAsBytes(summary));
+            out.write('\n');
+        }
+    }
+
+    private void writeChunk(List<Account> chunk, ExportFormat format, OutputStream out) throws IOException {
+        Map<Long, List<AccountDto.CardInfo>> cardsByAccount;
+        try {
+            cardsByAccount = cardHydrator.findCardsUncached(chunk.stream().map(Account::getId).toList());
+        } catch (Exception e) {
+            /* The accounts are still exported, flagged with cardsUnavailable, also when card-service was not called
+               because the breaker is open or the bulkhead full*/
+            log.warn("Card lookup for {} exported accounts failed: {}", chunk.size(), e.getMessage());
+            cardsByAccount = Collections.emptyMap();
+        }
+        HydratedCards cards = HydratedCards.fresh(cardsByAccount);
+        for (Account account : chunk) {
+            AccountDto dto = AccountServiceImpl.toDto(account, cards);
+            if (format == ExportFormat.CSV) {
+                writeCsv(out, dto);
+            } else {
+                out.write(lineWriter.writeValueAsBytes(dto));
+                out.write('\n');
+            }
+        }
+        /* Push the chunk to the client before reading further*/
+        out.flush();
+    }
+
+    private void writeCsv(OutputStream out, AccountDto dto) throws IOException {
+        String account = String.join(",", csv(dto.getId()), csv(dto.getCustomerId()), csv(dto.getIban()),
+                csv(dto.getBicSwift()), String.valueOf(dto.isCardsUnavailable()));
+        if (dto.getCards().isEmpty()) {
+            writeLine(out, account + ",,,");
+            return;
+        }
+        for (AccountDto.CardInfo card : dto.getCards()) {
+            writeLine(out, account + "," + csv(card.getCardId() == null ? null : card.getCardId().toString())
+                    + "," + csv(card.getType()) + "," + csv(card.getCardAlias()));
+        }
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+
+    /* RFC 4180 quoting, only for values that need it*/
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -11,7 +11,9 @@ import java.util.Optional;
 @Service
 public interface AccountService {
 
-    AccountsListResponseDto findAccounts(String iban, String bicSwift, String cardAlias, int page, int size);
+    AccountsListResponseDto findAccounts(String iban, String bicSwift, String cardAlias, int page, int size, boolean withTotal);
+
+    AccountsListResponseDto findAccountsAfter(String iban, String bicSwift, String cardAlias, String after, int limit);
 
     AccountDto findById(Long id);
 
@@ -7,61 +7,173 @@ import com.dtb.accounts.exceptions.RecordNotFoundException;
 import com.dtb.accounts.feigns.CardServiceClient;
 import com.dtb.accounts.models.Account;
 import com.dtb.accounts.repository.AccountRepository;
+import com.dtb.common.repository.RowCountEstimator;
+import com.dtb.common.utils.PageCursor;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class AccountServiceImpl implements AccountService {
+    /* Account ids asked from card-service per call when filtering by card alias, the most it returns*/
+    static final int ALIAS_MATCHES_CHUNK = 1000;
+
     private final AccountRepository accountRepository;
 
     private final CardServiceClient cardServiceClient;
 
-    public AccountServiceImpl(AccountRepository accountRepository, CardServiceClient cardServiceClient) {
+    private final CardHydrator cardHydrator;
+
+    private final RowCountEstimator rowCountEstimator;
+
+    private final ObservationRegistry observationRegistry;
+
+    public AccountServiceImpl(AccountRepository accountRepository, CardServiceClient cardServiceClient, CardHydrator cardHydrator,
+                              RowCountEstimator rowCountEstimator, ObservationRegistry observationRegistry) {
         this.accountRepository = accountRepository;
         this.cardServiceClient = cardServiceClient;
+        this.cardHydrator = cardHydrator;
+        this.rowCountEstimator = rowCountEstimator;
+        this.observationRegistry = observationRegistry;
     }
 
     @Override
-    public AccountsListResponseDto findAccounts(String iban, String bicSwift, String cardAlias, int page, int size)
+    public AccountsListResponseDto findAccounts(String iban, String bicSwift, String cardAlias, int page, int size, boolean withTotal)
     {
         Pageable pageable = PageRequest.of(page,size);
 
-        Page<Account> accounts =accountRepository.findWithFilters(iban,bicSwift,pageable);
+        boolean aliasFiltered = cardAlias != null && !cardAlias.isEmpty();
+        boolean filtered = iban != null || bicSwift != null || aliasFiltered;
+        Optional<RowCountEstimator.Estimate> estimate = withTotal && !filtered ? rowCountEstimator.getEstimate() : Optional.empty();
+        /* Exact totals need a count query, otherwise a slice reads one extra row to tell whether a next page exists.
+           Counting the accounts of a card alias would walk every match in card-service, so those pages report -1*/
+        boolean exactTotal = withTotal && estimate.isEmpty() && !aliasFiltered;
+
+        Slice<Account> accounts;
+        if (aliasFiltered) {
+            accounts = findByCardAlias(iban, bicSwift, cardAlias, pageable);
+        } else {
+            accounts = exactTotal
+                    ? accountRepository.findWithFilters(iban, bicSwift, pageable)
+                    : accountRepository.findSliceWithFilters(iban, bicSwift, pageable);
+        }
 
-        List<AccountDto>  dtoList = accounts.getContent().stream().
-                map(this::toDto).collect(Collectors.toList());
+        HydratedCards cardsByAccount = cardHydrator.findCards(
+                accounts.getContent().stream().map(Account::getId).collect(Collectors.toList()));
 
-        /**
-        *Filter if card alias is provided
-         */
-        if (cardAlias != null && !cardAlias.isEmpty()) {
-            System.out.println("Before filter, accounts1: " + dtoList.size());
-            dtoList = dtoList.stream()
-                    .filter(accountDTO -> accountDTO.getCards() != null &&
-                            accountDTO.getCards().stream()
-                                    .anyMatch(card -> card.getCardAlias().toLowerCase().contains(cardAlias.toLowerCase())))
-                    .collect(Collectors.toList());
-            System.out.println("After filter, accounts2: " + dtoList.size());
-        }
+        List<AccountDto> dtoList = toDtos(accounts.getContent(), cardsByAccount);
 
         AccountsListResponseDto dto =new AccountsListResponseDto();
         dto.setAccounts(dtoList);
         dto.setPage(accounts.getNumber());
         dto.setSize(accounts.getSize());
-        dto.setTotalItems(accounts.getTotalElements());
-        dto.setTotalPages(accounts.getTotalPages());
+        if (exactTotal && accounts instanceof Page<Account> accountPage) {
+            dto.setTotalItems(accountPage.getTotalElements());
+            dto.setTotalPages(accountPage.getTotalPages());
+            return dto;
+        }
+        dto.setHasNext(accounts.hasNext());
+        dto.setTotalItems(-1);
+        dto.setTotalPages(-1);
+        estimate.ifPresent(e -> {
+            dto.setTotalItems(e.totalItemsAtLeast(pageable, accounts));
+            dto.setTotalPages(e.totalPagesAtLeast(pageable, accounts));
+            dto.setTotalsApproximate(true);
+            dto.setTotalsAsOf(e.getAsOf());
+        });
         return dto;
 
     }
     @Override
+    public AccountsListResponseDto findAccountsAfter(String iban, String bicSwift, String cardAlias, String after, int limit) {
+        int pageSize = Math.max(1, limit);
+        long afterId = PageCursor.decode(after);
+        /* One extra row tells whether a next page exists without a count query*/
+        Limit fetchLimit = Limit.of(pageSize + 1);
+
+        List<Account> accounts;
+        if (cardAlias != null && !cardAlias.isEmpty()) {
+            accounts = findByCardAliasAfter(iban, bicSwift, cardAlias, afterId, pageSize + 1);
+        } else {
+            accounts = accountRepository.findWithFiltersAfter(iban, bicSwift, afterId, fetchLimit);
+        }
+        boolean hasNext = accounts.size() > pageSize;
+        List<Account> pageContent = hasNext ? accounts.subList(0, pageSize) : accounts;
+
+        HydratedCards cardsByAccount = cardHydrator.findCards(
+                pageContent.stream().map(Account::getId).collect(Collectors.toList()));
+
+        AccountsListResponseDto dto = new AccountsListResponseDto();
+        dto.setAccounts(toDtos(pageContent, cardsByAccount));
+        dto.setSize(pageSize);
+        dto.setTotalItems(-1);
+        dto.setTotalPages(-1);
+        if (hasNext) {
+            dto.setNextCursor(PageCursor.encode(pageContent.get(pageSize - 1).getId()));
+        }
+        return dto;
+    }
+    /* Card alias is resolved to account ids by card-service, a chunk at a time in id order, and every chunk is
+       intersected with the other filters here. Neither the response of card-service nor the IN list grows with
+       the number of matching accounts. Pages come in id order, matches are read up to the one past the page*/
+    private Slice<Account> findByCardAlias(String iban, String bicSwift, String cardAlias, Pageable pageable) {
+        int pageSize = pageable.getPageSize();
+        List<Long> pageIds = new ArrayList<>();
+        long matched = 0;
+        long afterAccountId = 0;
+        while (pageIds.size() <= pageSize) {
+            List<Long> candidates = cardServiceClient.findAccountIdsByCardAlias(cardAlias, afterAccountId, ALIAS_MATCHES_CHUNK);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            for (Long accountId : accountRepository.findIdsWithFilters(iban, bicSwift, candidates)) {
+                /* One id past the page tells whether a next page exists*/
+                if (matched >= pageable.getOffset() && pageIds.size() <= pageSize) {
+                    pageIds.add(accountId);
+                }
+                matched++;
+            }
+            afterAccountId = candidates.get(candidates.size() - 1);
+        }
+        boolean hasNext = pageIds.size() > pageSize;
+        List<Long> contentIds = hasNext ? pageIds.subList(0, pageSize) : pageIds;
+        List<Account> content = contentIds.isEmpty() ? Collections.emptyList()
+                : accountRepository.findAllById(contentIds).stream().sorted(Comparator.comparing(Account::getId)).toList();
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /* Same chunks for keyset pages, every chunk holds only ids above the ones before it so the rows found stay in id order*/
+    private List<Account> findByCardAliasAfter(String iban, String bicSwift, String cardAlias, long afterId, int fetchLimit) {
+        List<Account> accounts = new ArrayList<>();
+        long afterAccountId = afterId;
+        while (accounts.size() < fetchLimit) {
+            List<Long> candidates = cardServiceClient.findAccountIdsByCardAlias(cardAlias, afterAccountId, ALIAS_MATCHES_CHUNK);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            accounts.addAll(accountRepository.findWithFiltersAfter(iban, bicSwift, candidates, afterAccountId,
+                    Limit.of(fetchLimit - accounts.size())));
+            afterAccountId = candidates.get(candidates.size() - 1);
+        }
+        return accounts;
+    }
+    @Override
     public AccountDto findById(Long id) {
         return accountRepository.findById(id)
                 .map(this::toDto)
@@ -85,7 +197,7 @@ public class AccountServiceImpl implements AccountService {
 
         Account account = accountRepository.findById(Long.valueOf(dto.getId()))
                 .orElseThrow(() -> new RecordNotFoundException("No such card details exists" + dto.getId()));
-        log.info("Updating account details");
+        log.debug("Updating account {}", dto.getId());
         account.setBicSwift(dto.getBicSwift());
         account.setIban(dto.getIban());
         account.setCustomerId(dto.getCustomerId());
@@ -105,21 +217,30 @@ public class AccountServiceImpl implements AccountService {
         accountRepository.deleteById(id);
 
     }
+    /* Traced as its own span so a slow page can be told apart from slow queries and card lookups*/
+    private List<AccountDto> toDtos(List<Account> accounts, HydratedCards cardsByAccount) {
+        return Observation.createNotStarted("accounts.mapping", observationRegistry)
+                .contextualName("map-accounts")
+                .highCardinalityKeyValue("accounts.count", String.valueOf(accounts.size()))
+                .observe(() -> accounts.stream().map(account -> toDto(account, cardsByAccount)).collect(Collectors.toList()));
+    }
     private AccountDto toDto(Account account) {
+        return toDto(account, cardHydrator.findCards(account.getId()));
+    }
+    static AccountDto toDto(Account account, HydratedCards cardsByAccount) {
         AccountDto dto = new AccountDto();
         dto.setId(String.valueOf(account.getId()));
         dto.setCustomerId(account.getCustomerId());
         dto.setBicSwift(account.getBicSwift());
         dto.setIban(account.getIban());
-        //System.out.println("Test customer ID: " + account.getCustomerId());
-        try {
-            List<AccountDto.CardInfo> cards = cardServiceClient.getCardsByAccountId(Long.valueOf(account.getCustomerId()));
+        List<AccountDto.CardInfo> cards = cardsByAccount.get(account.getId());
+        if (cards != null) {
             dto.setCards(cards);
-            System.out.println("Card service returned " + cards.size() + " cards");
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            dto.setCards(null);
+            dto.setCardsStale(cardsByAccount.isStale(account.getId()));
+        } else {
+            /* Partial result: card-service failed or timed out for this account*/
+            dto.setCards(Collections.emptyList());
+            dto.setCardsUnavailable(true);
         }
         return dto;
     }
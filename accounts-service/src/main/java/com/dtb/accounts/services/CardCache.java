@@ -0,0 +1,99 @@
+package com.dtb.accounts.services;
+
+import com.dtb.accounts.config.CardCacheProperties;
+import com.dtb.accounts.dtos.AccountDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process cache of card lists keyed by account id. Entries are evicted by size and TTL,
+ * and invalidated when card-service reports a card change for the account.
+ * Hit/miss/eviction counts are published as cache.* metrics tagged cache=cards.
+ * The last list fetched per account is kept for longer (cache=cards-last-known), it is only
+ * served, marked stale, while card-service cannot be reached.
+ * A list is only stored when no card change was reported for its account since the
+ * version taken before it was fetched, a slow fetch cannot put back what an event invalidated.
+ */
+@Component
+public class CardCache {
+    private final Cache<Long, List<AccountDto.CardInfo>> cache;
+    private final Cache<Long, List<AccountDto.CardInfo>> lastKnown;
+    /* Versions of the accounts, bumped by invalidate. Striped by account id so they take fixed memory, an
+       invalidation also skips the puts of the other accounts of its stripe, which only costs a cache miss*/
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private static final int VERSION_STRIPES = 4096;
+
+    public CardCache(CardCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getStaleTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "cards");
+        CaffeineCacheMetrics.monitor(meterRegistry, lastKnown, "cards-last-known");
+    }
+
+    public List<AccountDto.CardInfo> get(Long accountId) {
+        return cache.getIfPresent(accountId);
+    }
+
+    public Map<Long, List<AccountDto.CardInfo>> getAll(Collection<Long> accountIds) {
+        return cache.getAllPresent(accountIds);
+    }
+
+    public Map<Long, List<AccountDto.CardInfo>> getLastKnown(Collection<Long> accountIds) {
+        return lastKnown.getAllPresent(accountIds);
+    }
+
+    /**
+     * Versions of the given accounts, to be taken before their cards are fetched and passed to {@link #putAll}.
+     */
+    public Map<Long, Long> versions(Collection<Long> accountIds) {
+        Map<Long, Long> accountVersions = new HashMap<>();
+        accountIds.forEach(accountId -> accountVersions.put(accountId, versions.get(stripe(accountId))));
+        return accountVersions;
+    }
+
+    /**
+     * Stores the fetched lists of the accounts whose version is still the one taken before the fetch.
+     */
+    public void putAll(Map<Long, List<AccountDto.CardInfo>> cardsByAccount, Map<Long, Long> versionsBeforeFetch) {
+        cardsByAccount.forEach((accountId, cards) -> {
+            Long version = versionsBeforeFetch.get(accountId);
+            if (version != null) {
+                /* Checked inside compute, an invalidate of the account waits for it or comes after the check sees its bump*/
+                cache.asMap().compute(accountId, (id, current) -> isCurrent(id, version) ? cards : current);
+                lastKnown.asMap().compute(accountId, (id, current) -> isCurrent(id, version) ? cards : current);
+            }
+        });
+    }
+
+    public void invalidate(Long accountId) {
+        versions.incrementAndGet(stripe(accountId));
+        cache.invalidate(accountId);
+        /* A list known to be outdated is not served either, the account is reported unavailable instead*/
+        lastKnown.invalidate(accountId);
+    }
+
+    private boolean isCurrent(Long accountId, long version) {
+        return versions.get(stripe(accountId)) == version;
+    }
+
+    private static int stripe(Long accountId) {
+        return Math.floorMod(Long.hashCode(accountId), VERSION_STRIPES);
+    }
+}
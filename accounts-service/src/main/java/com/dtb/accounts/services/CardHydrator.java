@@ -0,0 +1,220 @@
+package com.dtb.accounts.services;
+
+import com.dtb.accounts.config.CardHydrationProperties;
+import com.dtb.accounts.dtos.AccountDto;
+import com.dtb.accounts.feigns.CardServiceClient;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.annotation.Observed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class CardHydrator {
+    private final CardServiceClient cardServiceClient;
+    private final ThreadPoolTaskExecutor executor;
+    private final CardHydrationProperties properties;
+    private final CardCache cardCache;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Counter timeouts;
+    private final Counter staleServed;
+    /* Accounts with a background refresh in flight, so concurrent stale reads trigger one refresh*/
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    public CardHydrator(CardServiceClient cardServiceClient,
+                        @Qualifier("cardHydrationExecutor") ThreadPoolTaskExecutor executor,
+                        CardHydrationProperties properties,
+                        CardCache cardCache,
+                        CircuitBreaker cardServiceCircuitBreaker,
+                        Bulkhead cardServiceBulkhead,
+                        MeterRegistry meterRegistry) {
+        this.cardServiceClient = cardServiceClient;
+        this.executor = executor;
+        this.properties = properties;
+        this.cardCache = cardCache;
+        this.circuitBreaker = cardServiceCircuitBreaker;
+        this.bulkhead = cardServiceBulkhead;
+        this.timeouts = Counter.builder("card.hydration.timeouts")
+                .description("Card lookups abandoned because the request deadline passed")
+                .register(meterRegistry);
+        this.staleServed = Counter.builder("card.hydration.stale")
+                .description("Accounts served their last known cards because card-service could not be reached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Looks up the cards of a page of accounts. Cached accounts are served locally, the rest
+     * with one batch call bounded by the hydration deadline. A failed batch call is not retried
+     * per account, that would multiply the load on a card-service that is already failing. While
+     * the circuit breaker is open or the bulkhead is full card-service is not called at all.
+     * Accounts whose cards could not be fetched get their last known cards, marked stale and
+     * refreshed in the background, or are left out.
+     */
+    @Observed(name = "card.hydration", contextualName = "hydrate-cards")
+    public HydratedCards findCards(List<Long> accountIds) {
+        if (accountIds.isEmpty()) {
+            return HydratedCards.fresh(Collections.emptyMap());
+        }
+        Map<Long, List<AccountDto.CardInfo>> cardsByAccount = new HashMap<>(cardCache.getAll(accountIds));
+        List<Long> misses = accountIds.stream()
+                .filter(accountId -> !cardsByAccount.containsKey(accountId))
+                .distinct()
+                .collect(Collectors.toList());
+        if (misses.isEmpty()) {
+            return HydratedCards.fresh(cardsByAccount);
+        }
+
+        Map<Long, Long> versions = cardCache.versions(misses);
+        Map<Long, List<AccountDto.CardInfo>> fetched = withinDeadline(
+                () -> guarded(() -> cardServiceClient.getCardsByAccountIds(misses)),
+                "Card lookup for " + misses.size() + " accounts");
+        if (fetched == null) {
+            fetched = Collections.emptyMap();
+        }
+        cardCache.putAll(fetched, versions);
+        cardsByAccount.putAll(fetched);
+        return withLastKnown(cardsByAccount, misses);
+    }
+
+    /**
+     * Looks up the cards of a single account, from the cache or within the hydration deadline,
+     * falling back to its last known cards. The result is empty when neither is available.
+     */
+    @Observed(name = "card.hydration", contextualName = "hydrate-cards")
+    public HydratedCards findCards(Long accountId) {
+        List<AccountDto.CardInfo> cached = cardCache.get(accountId);
+        if (cached != null) {
+            return HydratedCards.fresh(Map.of(accountId, cached));
+        }
+        Map<Long, Long> versions = cardCache.versions(List.of(accountId));
+        List<AccountDto.CardInfo> cards = withinDeadline(() -> fetchCards(accountId), "Card lookup for account " + accountId);
+        Map<Long, List<AccountDto.CardInfo>> fetched = new HashMap<>();
+        if (cards != null) {
+            fetched.put(accountId, cards);
+            cardCache.putAll(fetched, versions);
+        }
+        return withLastKnown(fetched, List.of(accountId));
+    }
+
+    /**
+     * Looks up the cards of the given accounts with one call through the circuit breaker and bulkhead, for the
+     * export. Neither the cache nor the hydration deadline is used: an export reads every account once and runs
+     * off the request threads. Fails with the card-service error, or at once while the breaker is open or
+     * the bulkhead is full.
+     */
+    public Map<Long, List<AccountDto.CardInfo>> findCardsUncached(List<Long> accountIds) {
+        return guarded(() -> cardServiceClient.getCardsByAccountIds(accountIds));
+    }
+
+    private HydratedCards withLastKnown(Map<Long, List<AccountDto.CardInfo>> cardsByAccount, List<Long> requested) {
+        List<Long> missing = requested.stream()
+                .filter(accountId -> !cardsByAccount.containsKey(accountId))
+                .toList();
+        Map<Long, List<AccountDto.CardInfo>> lastKnown = missing.isEmpty()
+                ? Collections.emptyMap() : cardCache.getLastKnown(missing);
+        if (lastKnown.isEmpty()) {
+            return HydratedCards.fresh(cardsByAccount);
+        }
+        staleServed.increment(lastKnown.size());
+        cardsByAccount.putAll(lastKnown);
+        refreshInBackground(lastKnown.keySet());
+        return new HydratedCards(cardsByAccount, Set.copyOf(lastKnown.keySet()));
+    }
+
+    private void refreshInBackground(Collection<Long> accountIds) {
+        /* Would be turned away by the open breaker, the first calls let through once it is half-open refresh instead*/
+        if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            return;
+        }
+        List<Long> toRefresh = accountIds.stream().filter(refreshing::add).toList();
+        if (toRefresh.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> versions = cardCache.versions(toRefresh);
+        try {
+            executor.execute(() -> {
+                try {
+                    cardCache.putAll(guarded(() -> cardServiceClient.getCardsByAccountIds(toRefresh)), versions);
+                } catch (Exception e) {
+                    log.debug("Background refresh of the cards of {} accounts failed: {}", toRefresh.size(), e.getMessage());
+                } finally {
+                    toRefresh.forEach(refreshing::remove);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            toRefresh.forEach(refreshing::remove);
+        }
+    }
+
+    /* Runs a card-service call on the hydration pool, so the request waits at most the hydration deadline rather
+       than the Feign read timeout. Null when the call was rejected, failed or did not finish in time*/
+    private <T> T withinDeadline(Callable<T> lookup, String description) {
+        Future<T> call;
+        try {
+            call = executor.submit(lookup);
+        } catch (TaskRejectedException e) {
+            log.warn("{} rejected: {}", description, e.getMessage());
+            return null;
+        }
+        try {
+            return call.get(properties.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            call.cancel(true);
+            log.warn("{} timed out after {}", description, properties.getTimeout());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CallNotPermittedException || e.getCause() instanceof BulkheadFullException) {
+                /* Shedding load*/
+                log.debug("{} not attempted: {}", description, e.getCause().getMessage());
+            } else {
+                log.warn("{} failed", description, e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            call.cancel(true);
+        }
+        return null;
+    }
+
+    private List<AccountDto.CardInfo> fetchCards(Long accountId) {
+        return guarded(() -> {
+            try {
+                return cardServiceClient.getCardsByAccountId(accountId);
+            } catch (FeignException.NotFound e) {
+                /* card-service answers 404 for accounts without cards, a successful call for the breaker*/
+                return Collections.emptyList();
+            }
+        });
+    }
+
+    /* The bulkhead sits outside the breaker: calls turned away because this instance already has enough
+       of them in flight say nothing about the health of card-service and are not recorded by the breaker*/
+    private <T> T guarded(Supplier<T> call) {
+        return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, call)).get();
+    }
+}
@@ -0,0 +1,26 @@
+package com.dtb.accounts.services;
+
+import com.dtb.accounts.dtos.AccountDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cards found by the CardHydrator per account id. Accounts without an entry could not be hydrated,
+ * the stale ones were served from the last known lists while card-service could not be reached.
+ */
+public record HydratedCards(Map<Long, List<AccountDto.CardInfo>> cards, Set<Long> staleAccountIds) {
+
+    public static HydratedCards fresh(Map<Long, List<AccountDto.CardInfo>> cards) {
+        return new HydratedCards(cards, Set.of());
+    }
+
+    public List<AccountDto.CardInfo> get(Long accountId) {
+        return cards.get(accountId);
+    }
+
+    public boolean isStale(Long accountId) {
+        return staleAccountIds.contains(accountId);
+    }
+}
@@ -0,0 +1,8 @@
+-- Baseline of the schema previously generated by Hibernate (ddl-auto=update).
+-- IF NOT EXISTS keeps it a no-op on databases that already have the table.
+CREATE TABLE IF NOT EXISTS accounts (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    customer_id VARCHAR(255),
+    iban        VARCHAR(255),
+    bic_swift   VARCHAR(255)
+);
@@ -0,0 +1,2 @@
+-- Pooled id sequence replacing IDENTITY, see the Postgres migration. H2 databases are created empty
+CREATE SEQUENCE IF NOT EXISTS accounts_seq START WITH 50 INCREMENT BY 50;
@@ -0,0 +1,5 @@
+-- Pooled id sequence replacing IDENTITY so Hibernate can batch inserts. Hibernate reserves
+-- allocationSize (50) ids per nextval, the increment must match. The first value handed out
+-- is just above the ids already in the table.
+CREATE SEQUENCE IF NOT EXISTS accounts_seq INCREMENT BY 50;
+SELECT setval('accounts_seq', (SELECT COALESCE(MAX(id), 0) FROM accounts) + 50, false);
@@ -0,0 +1,94 @@
+package com.dtb.accounts.config;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeignHttpClientConfigurationTest {
+    private final FeignHttpClientConfiguration configuration = new FeignHttpClientConfiguration();
+    private final FeignHttpClientProperties properties = new FeignHttpClientProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/cards", exchange -> {
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void pooledClient_reusesKeptAliveConnectionAndPublishesPoolMetrics() throws Exception {
+        FeignHttpClientProperties.Client client = new FeignHttpClientProperties.Client();
+        client.setMaxConnections(20);
+        client.setMaxConnectionsPerRoute(5);
+        properties.setClients(Map.of("cards-service", client));
+        httpClient = configuration.pooledHttpClient("cards-service", properties, meterRegistry);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("pooledHttpClient", httpClient);
+        Client feignClient = configuration.feignClient("cards-service", properties, beanFactory.getBeanProvider(CloseableHttpClient.class),
+                meterRegistry);
+        assertThat(feignClient).isInstanceOf(ApacheHttp5Client.class);
+
+        String url = "http://localhost:" + server.getAddress().getPort() + "/api/cards/1/accounts";
+        for (int i = 0; i < 5; i++) {
+            try (Response response = feignClient.execute(Request.create(Request.HttpMethod.GET, url, Collections.emptyMap(),
+                    null, StandardCharsets.UTF_8, null), new Request.Options())) {
+                assertThat(response.status()).isEqualTo(200);
+                response.body().asInputStream().readAllBytes();
+            }
+        }
+
+        assertThat(meterRegistry.get("http.client.pool.wait").tag("client", "cards-service").timer().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("http.client.pool.connect").tag("client", "cards-service").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.client.pool.connect").timer().totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", "cards-service").gauge().value())
+                .isEqualTo(20);
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "available").gauge().value())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void http2Client_skipsThePool() {
+        FeignHttpClientProperties.Client client = new FeignHttpClientProperties.Client();
+        client.setHttp2(true);
+        properties.setClients(Map.of("cards-service", client));
+
+        Client feignClient = configuration.feignClient("cards-service", properties,
+                new DefaultListableBeanFactory().getBeanProvider(CloseableHttpClient.class), meterRegistry);
+
+        assertThat(feignClient).isInstanceOf(Http2Client.class);
+        assertThat(meterRegistry.find("http.client.pool.wait").timer()).isNull();
+    }
+}
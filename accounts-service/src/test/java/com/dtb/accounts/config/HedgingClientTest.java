@@ -0,0 +1,185 @@
+package com.dtb.accounts.config;
+
+import com.dtb.accounts.feigns.Hedgeable;
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Contract;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestLine;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgingClientTest {
+    /* Stands in for CardServiceClient, only the marker decides whether a call may be hedged*/
+    interface Lookups {
+        @Hedgeable
+        @RequestLine("GET /api/cards/1/accounts")
+        String cards();
+
+        @Hedgeable
+        @RequestLine("POST /api/cards/accounts/batch")
+        String batch(String accountIds);
+
+        @RequestLine("POST /api/cards/accounts/batch")
+        String unmarked(String accountIds);
+    }
+
+    private static final Map<String, MethodMetadata> LOOKUPS = new Contract.Default().parseAndValidateMetadata(Lookups.class)
+            .stream()
+            .collect(Collectors.toMap(metadata -> metadata.method().getName(), metadata -> metadata));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<HttpServer> servers = new ArrayList<>();
+    /* Only the first instance turns slow*/
+    private final AtomicBoolean firstInstanceSlow = new AtomicBoolean();
+    private final FeignHttpClientProperties.Client properties = new FeignHttpClientProperties.Client();
+    private HedgingClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            String name = "instance-" + i;
+            boolean first = i == 0;
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/cards", exchange -> {
+                if (first && firstInstanceSlow.get()) {
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                byte[] body = name.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            servers.add(server);
+            properties.getInstances().add("http://localhost:" + server.getAddress().getPort());
+        }
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setMinSamples(4);
+        properties.getHedging().setDelayPercentile(0.5);
+        properties.getHedging().setMinDelay(Duration.ofMillis(50));
+        properties.getHedging().setMaxRatio(0.5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void slowGet_isAnsweredByTheHedgeToTheOtherInstance() throws Exception {
+        client = new HedgingClient("cards-service", new Client.Default(null, null), properties, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            assertThat(get()).isEqualTo("instance-" + i % 2);
+        }
+        assertThat(meterRegistry.get("http.client.hedge.delay").gauge().value()).isGreaterThanOrEqualTo(50);
+
+        firstInstanceSlow.set(true);
+        long start = System.nanoTime();
+        assertThat(get()).isEqualTo("instance-1");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(800));
+        assertThat(get()).isEqualTo("instance-1");
+
+        assertThat(meterRegistry.get("http.client.hedge.issued").tag("client", "cards-service").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.client.hedge.won").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void hedges_stopWhenTheBudgetIsSpent() throws Exception {
+        properties.getHedging().setMaxRatio(0.01);
+        client = new HedgingClient("cards-service", new Client.Default(null, null), properties, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            get();
+        }
+
+        firstInstanceSlow.set(true);
+        assertThat(get()).isEqualTo("instance-0");
+
+        assertThat(meterRegistry.get("http.client.hedge.throttled").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.client.hedge.issued").counter().count()).isZero();
+    }
+
+    @Test
+    void slowBatchPost_isHedgedWhenItsMethodIsHedgeable() throws Exception {
+        client = new HedgingClient("cards-service", new Client.Default(null, null), properties, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            get();
+        }
+
+        firstInstanceSlow.set(true);
+        long start = System.nanoTime();
+        assertThat(call("batch")).isEqualTo("instance-1");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(800));
+        assertThat(meterRegistry.get("http.client.hedge.issued").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unmarkedCalls_areSpreadOverTheInstancesButNeverHedged() throws Exception {
+        client = new HedgingClient("cards-service", new Client.Default(null, null), properties, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            get();
+        }
+
+        firstInstanceSlow.set(true);
+        assertThat(call("unmarked")).isEqualTo("instance-0");
+        assertThat(meterRegistry.get("http.client.hedge.issued").counter().count()).isZero();
+    }
+
+    @Test
+    void refusedConnection_isSentToTheNextInstanceAtOnce() throws Exception {
+        client = new HedgingClient("cards-service", new Client.Default(null, null), properties, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            get();
+        }
+
+        servers.remove(0).stop(0);
+        assertThat(get()).isEqualTo("instance-1");
+        assertThat(call("unmarked")).isEqualTo("instance-1");
+
+        assertThat(meterRegistry.get("http.client.failover").tag("client", "cards-service").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.client.hedge.issued").counter().count()).isZero();
+    }
+
+    private String get() throws Exception {
+        return call("cards");
+    }
+
+    private String call(String method) throws Exception {
+        try (Response response = client.execute(request(LOOKUPS.get(method)), new Request.Options())) {
+            assertThat(response.status()).isEqualTo(200);
+            return new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /* The host of the client's url is replaced by the instance's*/
+    private static Request request(MethodMetadata metadata) {
+        RequestTemplate template = metadata.template();
+        Request.HttpMethod method = Request.HttpMethod.valueOf(template.method());
+        return Request.create(method, "http://cards-service" + template.url(), Collections.emptyMap(),
+                method == Request.HttpMethod.POST ? "[1]".getBytes(StandardCharsets.UTF_8) : null,
+                StandardCharsets.UTF_8, new RequestTemplate().methodMetadata(metadata));
+    }
+}
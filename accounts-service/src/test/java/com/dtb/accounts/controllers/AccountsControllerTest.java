@@ -1,24 +1,33 @@
 package com.dtb.accounts.controllers;
 
+import com.dtb.accounts.config.AccountExportProperties;
 import com.dtb.accounts.dtos.AccountDto;
 import com.dtb.accounts.dtos.AccountsListResponseDto;
 import com.dtb.accounts.dtos.CreateAccountDto;
+import com.dtb.accounts.enums.ExportFormat;
+import com.dtb.accounts.services.AccountExporter;
 import com.dtb.accounts.services.AccountService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -31,6 +40,12 @@ class AccountsControllerTest {
     @Mock
     private AccountService accountService;
 
+    @Mock
+    private AccountExporter accountExporter;
+
+    @Spy
+    private AccountExportProperties accountExportProperties = new AccountExportProperties();
+
     @InjectMocks
     private AccountsController accountsController;
 
@@ -54,7 +69,7 @@ class AccountsControllerTest {
         responseDto.setTotalItems(1);
         responseDto.setTotalPages(1);
 
-        when(accountService.findAccounts(anyString(), anyString(), anyString(), anyInt(), anyInt()))
+        when(accountService.findAccounts(anyString(), anyString(), anyString(), anyInt(), anyInt(), anyBoolean()))
                 .thenReturn(responseDto);
 
         mockMvc.perform(get("/api/accounts")
@@ -69,7 +84,7 @@ class AccountsControllerTest {
                 .andExpect(jsonPath("$.accounts[0].iban", is("IBAN123")))
                 .andExpect(jsonPath("$.totalItems", is(1)));
 
-        verify(accountService).findAccounts("IBAN123", "BIC001", "Card1", 0, 10);
+        verify(accountService).findAccounts("IBAN123", "BIC001", "Card1", 0, 10, true);
     }
 
     @Test
@@ -80,14 +95,34 @@ class AccountsControllerTest {
         responseDto.setTotalItems(0);
         responseDto.setTotalPages(0);
 
-        when(accountService.findAccounts(any(), any(), any(), anyInt(), anyInt()))
+        when(accountService.findAccounts(any(), any(), any(), anyInt(), anyInt(), anyBoolean()))
                 .thenReturn(responseDto);
 
         mockMvc.perform(get("/api/accounts"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.page", is(0)));
 
-        verify(accountService).findAccounts(null, null, null, 0, 10);
+        verify(accountService).findAccounts(null, null, null, 0, 10, true);
+    }
+    @Test
+    void testGetAllAccountsWithCursor() throws Exception {
+        AccountsListResponseDto responseDto = new AccountsListResponseDto();
+        responseDto.setAccounts(List.of(createSampleAccountDto()));
+        responseDto.setSize(1);
+        responseDto.setTotalItems(-1);
+        responseDto.setTotalPages(-1);
+        responseDto.setNextCursor("MQ");
+
+        when(accountService.findAccountsAfter(isNull(), isNull(), isNull(), isNull(), eq(1)))
+                .thenReturn(responseDto);
+
+        mockMvc.perform(get("/api/accounts")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor", is("MQ")));
+
+        verify(accountService, never()).findAccounts(any(), any(), any(), anyInt(), anyInt(), anyBoolean());
     }
     @Test
     void testFindAccountById() throws Exception {
@@ -161,6 +196,41 @@ class AccountsControllerTest {
         verify(accountService).deleteAccount(1L);
     }
 
+    @Test
+    void testExportAccounts_StreamsCsv() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("accountId,customerId\n1,100\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(accountExporter).export(eq(ExportFormat.CSV), any());
+
+        MvcResult result = mockMvc.perform(get("/api/accounts/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        /* Only the export waits longer than the async default*/
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=accounts.csv"))
+                .andExpect(content().string("accountId,customerId\n1,100\n"));
+    }
+
+    @Test
+    void testExportAccounts_DefaultsToNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/accounts/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+        verify(accountExporter).export(eq(ExportFormat.NDJSON), any());
+        verify(accountService, never()).findAccounts(any(), any(), any(), anyInt(), anyInt(), anyBoolean());
+    }
+
     private AccountDto createSampleAccountDto() {
         AccountDto accountDto = new AccountDto();
         accountDto.setId("1");
@@ -0,0 +1,62 @@
+package com.dtb.accounts.controllers;
+
+import com.dtb.accounts.dtos.CardChangedEventDto;
+import com.dtb.accounts.services.CardCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CardEventsControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private CardCache cardCache;
+
+    @InjectMocks
+    private CardEventsController cardEventsController;
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(cardEventsController).build();
+        objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    void testCardsChangedInvalidatesAccount() throws Exception {
+        CardChangedEventDto event = new CardChangedEventDto(1L, 10L, "CREATED");
+
+        mockMvc.perform(post("/api/card-events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(event)))
+                .andExpect(status().isAccepted());
+
+        verify(cardCache).invalidate(1L);
+    }
+
+    @Test
+    void testCardsChangedWithoutAccountIdIsRejected() throws Exception {
+        CardChangedEventDto event = new CardChangedEventDto(null, 10L, "CREATED");
+
+        mockMvc.perform(post("/api/card-events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(event)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(cardCache);
+    }
+}
@@ -0,0 +1,173 @@
+package com.dtb.accounts.services;
+
+import com.dtb.accounts.config.AccountExportProperties;
+import com.dtb.accounts.config.CardCacheProperties;
+import com.dtb.accounts.config.CardHydrationProperties;
+import com.dtb.accounts.dtos.AccountDto;
+import com.dtb.accounts.enums.ExportFormat;
+import com.dtb.accounts.feigns.CardServiceClient;
+import com.dtb.accounts.models.Account;
+import com.dtb.accounts.repository.AccountRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class AccountExporterTest {
+    @Mock
+    private AccountRepository accountRepository;
+    @Mock
+    private CardServiceClient cardServiceClient;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ThreadPoolTaskExecutor hydrationExecutor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("cards-service");
+    private AccountExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        AccountExportProperties properties = new AccountExportProperties();
+        properties.setChunkSize(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CardHydrator cardHydrator = new CardHydrator(cardServiceClient, hydrationExecutor, new CardHydrationProperties(),
+                new CardCache(new CardCacheProperties(), meterRegistry), circuitBreaker, Bulkhead.ofDefaults("cards-service"),
+                meterRegistry);
+        exporter = new AccountExporter(accountRepository, cardHydrator, entityManager, transactionManager, objectMapper, properties);
+    }
+
+    private Account account(long id, String iban) {
+        Account account = new Account();
+        account.setId(id);
+        account.setCustomerId("c" + id);
+        account.setIban(iban);
+        account.setBicSwift("BIC001");
+        return account;
+    }
+
+    private AccountDto.CardInfo card(long id, String type, String alias) {
+        AccountDto.CardInfo card = new AccountDto.CardInfo();
+        card.setCardId(id);
+        card.setType(type);
+        card.setCardAlias(alias);
+        return card;
+    }
+
+    @Test
+    void export_ndjsonFetchesCardsPerChunkAndClosesTheCursor() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(accountRepository.streamAllByOrderById()).thenReturn(
+                Stream.of(account(1, "IBAN1"), account(2, "IBAN2"), account(3, "IBAN3")).onClose(() -> closed.set(true)));
+        when(cardServiceClient.getCardsByAccountIds(List.of(1L, 2L)))
+                .thenReturn(Map.of(1L, List.of(card(10, "PHYSICAL", "Main")), 2L, List.of()));
+        when(cardServiceClient.getCardsByAccountIds(List.of(3L))).thenThrow(new RuntimeException("card-service down"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = exporter.export(ExportFormat.NDJSON, out);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        assertThat(exported).isEqualTo(3);
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0).get("cards").get(0).get("cardAlias").asText()).isEqualTo("Main");
+        assertThat(lines.get(1).get("cardsUnavailable").asBoolean()).isFalse();
+        assertThat(lines.get(2).get("id").asText()).isEqualTo("3");
+        assertThat(lines.get(2).get("cardsUnavailable").asBoolean()).isTrue();
+        assertThat(lines.get(3).get("status").asText()).isEqualTo("COMPLETE");
+        assertThat(lines.get(3).get("exported").asLong()).isEqualTo(3);
+        assertThat(closed).isTrue();
+        verify(cardServiceClient, times(2)).getCardsByAccountIds(anyList());
+        verify(entityManager, times(2)).clear();
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void export_csvWritesOneRowPerCardAndQuotesValues() throws Exception {
+        when(accountRepository.streamAllByOrderById()).thenReturn(Stream.of(account(1, "IBAN,1"), account(2, "IBAN2")));
+        when(cardServiceClient.getCardsByAccountIds(List.of(1L, 2L))).thenReturn(Map.of(
+                1L, List.of(card(10, "PHYSICAL", "My \"main\" card"), card(11, "VIRTUAL", "Online")),
+                2L, List.of()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.export(ExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "accountId,customerId,iban,bicSwift,cardsUnavailable,cardId,cardType,cardAlias",
+                "1,c1,\"IBAN,1\",BIC001,false,10,PHYSICAL,\"My \"\"main\"\" card\"",
+                "1,c1,\"IBAN,1\",BIC001,false,11,VIRTUAL,Online",
+                "2,c2,IBAN2,BIC001,false,,,",
+                "#COMPLETE,2");
+    }
+
+    @Test
+    void export_doesNotCallCardServiceWhileCircuitIsOpen() throws Exception {
+        when(accountRepository.streamAllByOrderById()).thenReturn(Stream.of(account(1, "IBAN1"), account(2, "IBAN2")));
+        circuitBreaker.transitionToOpenState();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.export(ExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "accountId,customerId,iban,bicSwift,cardsUnavailable,cardId,cardType,cardAlias",
+                "1,c1,IBAN1,BIC001,true,,,",
+                "2,c2,IBAN2,BIC001,true,,,",
+                "#COMPLETE,2");
+        verifyNoInteractions(cardServiceClient);
+    }
+
+    @Test
+    void export_emptyTableWritesOnlyTheCsvHeaderAndSummary() throws Exception {
+        when(accountRepository.streamAllByOrderById()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exporter.export(ExportFormat.CSV, out)).isZero();
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("accountId,customerId,iban,bicSwift,cardsUnavailable,cardId,cardType,cardAlias\n#COMPLETE,0\n");
+        verifyNoInteractions(cardServiceClient);
+    }
+
+    @Test
+    void export_failureAfterRowsWereSentEndsWithAFailedSummary() {
+        when(accountRepository.streamAllByOrderById()).thenReturn(Stream.of(account(1, "IBAN1"), account(2, "IBAN2"), account(3, "IBAN3"))
+                .peek(account -> {
+                    if (account.getId() == 3) {
+                        throw new IllegalStateException("connection lost");
+                    }
+                }));
+        when(cardServiceClient.getCardsByAccountIds(anyList())).thenReturn(Map.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> exporter.export(ExportFormat.NDJSON, out)).hasMessage("connection lost");
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[2]).isEqualTo("{\"status\":\"FAILED\",\"exported\":2,\"error\":\"Export stopped after 2 accounts: connection lost\"}");
+    }
+}
@@ -1,5 +1,7 @@
 package com.dtb.accounts.services;
 
+import com.dtb.accounts.config.CardCacheProperties;
+import com.dtb.accounts.config.CardHydrationProperties;
 import com.dtb.accounts.dtos.AccountDto;
 import com.dtb.accounts.dtos.AccountsListResponseDto;
 import com.dtb.accounts.dtos.CreateAccountDto;
@@ -7,12 +9,23 @@ import com.dtb.accounts.exceptions.RecordNotFoundException;
 import com.dtb.accounts.feigns.CardServiceClient;
 import com.dtb.accounts.models.Account;
 import com.dtb.accounts.repository.AccountRepository;
+import com.dtb.common.repository.RowCountEstimator;
+import com.dtb.common.utils.PageCursor;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.data.domain.*;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,12 +35,35 @@ class AccountServiceImplTest {
     private AccountRepository accountRepository;
     @Mock
     private CardServiceClient cardServiceClient;
-    @InjectMocks
+    @Mock
+    private RowCountEstimator rowCountEstimator;
+    private ThreadPoolTaskExecutor hydrationExecutor;
+    private CardCache cardCache;
+    private CircuitBreaker circuitBreaker;
     private AccountServiceImpl accountService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        hydrationExecutor = new ThreadPoolTaskExecutor();
+        hydrationExecutor.setCorePoolSize(4);
+        hydrationExecutor.initialize();
+        circuitBreaker = CircuitBreaker.ofDefaults("cards-service");
+        cardCache = new CardCache(new CardCacheProperties(), new SimpleMeterRegistry());
+        accountService = accountService(cardCache);
+    }
+
+    private AccountServiceImpl accountService(CardCache cardCache) {
+        CardHydrationProperties properties = new CardHydrationProperties();
+        properties.setTimeout(Duration.ofMillis(500));
+        CardHydrator cardHydrator = new CardHydrator(cardServiceClient, hydrationExecutor, properties, cardCache,
+                circuitBreaker, Bulkhead.ofDefaults("cards-service"), new SimpleMeterRegistry());
+        return new AccountServiceImpl(accountRepository, cardServiceClient, cardHydrator, rowCountEstimator, ObservationRegistry.NOOP);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hydrationExecutor.shutdown();
     }
 
     private Account sampleAccount() {
@@ -49,7 +85,7 @@ class AccountServiceImplTest {
     void testFindByIdSuccess() {
         Account account = sampleAccount();
         when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
-        when(cardServiceClient.getCardsByAccountId(100L)).thenReturn(List.of(sampleCard()));
+        when(cardServiceClient.getCardsByAccountId(1L)).thenReturn(List.of(sampleCard()));
 
         AccountDto dto = accountService.findById(1L);
 
@@ -58,6 +94,54 @@ class AccountServiceImplTest {
         verify(accountRepository).findById(1L);
     }
 
+    @Test
+    void testFindByIdServesCardsFromCacheUntilInvalidated() {
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(sampleAccount()));
+        when(cardServiceClient.getCardsByAccountId(1L)).thenReturn(List.of(sampleCard()));
+
+        accountService.findById(1L);
+        AccountDto cached = accountService.findById(1L);
+        assertEquals(1, cached.getCards().size());
+        verify(cardServiceClient, times(1)).getCardsByAccountId(1L);
+
+        cardCache.invalidate(1L);
+        accountService.findById(1L);
+        verify(cardServiceClient, times(2)).getCardsByAccountId(1L);
+    }
+
+    @Test
+    void testCardsFetchedBeforeAnInvalidationAreNotCached() {
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(sampleAccount()));
+        when(cardServiceClient.getCardsByAccountId(1L)).thenAnswer(invocation -> {
+            /* A card event for the account arrives while its cards are being fetched*/
+            cardCache.invalidate(1L);
+            return List.of(sampleCard());
+        });
+
+        AccountDto dto = accountService.findById(1L);
+
+        assertEquals(1, dto.getCards().size());
+        assertNull(cardCache.get(1L));
+        assertTrue(cardCache.getLastKnown(List.of(1L)).isEmpty());
+    }
+
+    @Test
+    void testFindAccountsOnlyFetchesUncachedAccounts() {
+        Account first = sampleAccount();
+        Account second = sampleAccount();
+        second.setId(2L);
+        cardCache.putAll(Map.of(1L, List.of(sampleCard())), cardCache.versions(List.of(1L)));
+        when(accountRepository.findWithFilters(null, null, PageRequest.of(0, 10)))
+                .thenReturn(new PageImpl<>(List.of(first, second)));
+        when(cardServiceClient.getCardsByAccountIds(List.of(2L))).thenReturn(Map.of(2L, List.of(sampleCard())));
+
+        AccountsListResponseDto dto = accountService.findAccounts(null, null, null, 0, 10, true);
+
+        assertEquals(1, dto.getAccounts().get(0).getCards().size());
+        assertEquals(1, dto.getAccounts().get(1).getCards().size());
+        verify(cardServiceClient).getCardsByAccountIds(List.of(2L));
+    }
+
     @Test
     void testFindByIdNotFound() {
         when(accountRepository.findById(1L)).thenReturn(Optional.empty());
@@ -132,26 +216,185 @@ class AccountServiceImplTest {
         Account account = sampleAccount();
         Page<Account> page = new PageImpl<>(List.of(account));
         when(accountRepository.findWithFilters("IBAN123", "BIC001", PageRequest.of(0, 10))).thenReturn(page);
-        when(cardServiceClient.getCardsByAccountId(100L)).thenReturn(List.of(sampleCard()));
+        when(cardServiceClient.getCardsByAccountIds(List.of(1L))).thenReturn(Map.of(1L, List.of(sampleCard())));
 
-        AccountsListResponseDto dto = accountService.findAccounts("IBAN123", "BIC001", null, 0, 10);
+        AccountsListResponseDto dto = accountService.findAccounts("IBAN123", "BIC001", null, 0, 10, true);
 
         assertEquals(1, dto.getAccounts().size());
+        assertEquals(1, dto.getAccounts().get(0).getCards().size());
+    }
+
+    @Test
+    void testFindAccountsFetchesCardsInSingleBatchCall() {
+        Account first = sampleAccount();
+        Account second = sampleAccount();
+        second.setId(2L);
+        Page<Account> page = new PageImpl<>(List.of(first, second));
+        when(accountRepository.findWithFilters(null, null, PageRequest.of(0, 10))).thenReturn(page);
+        when(cardServiceClient.getCardsByAccountIds(List.of(1L, 2L))).thenReturn(Map.of(1L, List.of(sampleCard())));
+
+        AccountsListResponseDto dto = accountService.findAccounts(null, null, null, 0, 10, true);
+
+        assertEquals(2, dto.getAccounts().size());
+        assertEquals(1, dto.getAccounts().get(0).getCards().size());
+        assertTrue(dto.getAccounts().get(1).getCards().isEmpty());
+        verify(cardServiceClient, times(1)).getCardsByAccountIds(anyList());
+        verify(cardServiceClient, never()).getCardsByAccountId(anyLong());
+    }
+
+    @Test
+    void testFindAccountsDoesNotFanOutPerAccountWhenBatchFails() {
+        Account first = sampleAccount();
+        Account second = sampleAccount();
+        second.setId(2L);
+        Page<Account> page = new PageImpl<>(List.of(first, second));
+        when(accountRepository.findWithFilters(null, null, PageRequest.of(0, 10))).thenReturn(page);
+        when(cardServiceClient.getCardsByAccountIds(anyList())).thenThrow(new RuntimeException("Service Down"));
+
+        AccountsListResponseDto dto = accountService.findAccounts(null, null, null, 0, 10, true);
+
+        assertEquals(2, dto.getAccounts().size());
+        assertTrue(dto.getAccounts().get(0).isCardsUnavailable());
+        assertTrue(dto.getAccounts().get(1).isCardsUnavailable());
+        verify(cardServiceClient, never()).getCardsByAccountId(anyLong());
+    }
+
+    @Test
+    void testFindAccountsBoundsTheBatchCallByTheHydrationDeadline() {
+        Page<Account> page = new PageImpl<>(List.of(sampleAccount()));
+        when(accountRepository.findWithFilters(null, null, PageRequest.of(0, 10))).thenReturn(page);
+        when(cardServiceClient.getCardsByAccountIds(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(3000);
+            return Map.of(1L, List.of(sampleCard()));
+        });
+
+        long start = System.nanoTime();
+        AccountsListResponseDto dto = accountService.findAccounts(null, null, null, 0, 10, true);
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(2000)) < 0);
+        assertTrue(dto.getAccounts().get(0).isCardsUnavailable());
+    }
+
+    @Test
+    void testFindByIdFlagsCardsWhenCardServiceTimesOut() {
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(sampleAccount()));
+        when(cardServiceClient.getCardsByAccountId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return List.of(sampleCard());
+        });
+
+        AccountDto dto = accountService.findById(1L);
+
+        assertTrue(dto.isCardsUnavailable());
+        assertTrue(dto.getCards().isEmpty());
+    }
+
+    @Test
+    void testFindAccountsServesLastKnownCardsMarkedStaleWhenCardServiceFails() {
+        /* Fresh entries expire at once, only the last known cards are left*/
+        CardCacheProperties cacheProperties = new CardCacheProperties();
+        cacheProperties.setTimeToLive(Duration.ZERO);
+        AccountServiceImpl service = accountService(new CardCache(cacheProperties, new SimpleMeterRegistry()));
+        Account first = sampleAccount();
+        Account second = sampleAccount();
+        second.setId(2L);
+        Page<Account> page = new PageImpl<>(List.of(first, second));
+        when(accountRepository.findWithFilters(null, null, PageRequest.of(0, 10))).thenReturn(page);
+        when(cardServiceClient.getCardsByAccountIds(anyList()))
+                .thenReturn(Map.of(1L, List.of(sampleCard())))
+                .thenThrow(new RuntimeException("Service Down"));
+
+        service.findAccounts(null, null, null, 0, 10, true);
+        AccountsListResponseDto dto = service.findAccounts(null, null, null, 0, 10, true);
+
+        AccountDto stale = dto.getAccounts().get(0);
+        assertEquals(1, stale.getCards().size());
+        assertTrue(stale.isCardsStale());
+        assertFalse(stale.isCardsUnavailable());
+        assertTrue(dto.getAccounts().get(1).isCardsUnavailable());
+        assertFalse(dto.getAccounts().get(1).isCardsStale());
+        /* Refreshed in the background with one more batch call*/
+        verify(cardServiceClient, timeout(2000).times(3)).getCardsByAccountIds(anyList());
+        verify(cardServiceClient, timeout(2000).times(1)).getCardsByAccountIds(List.of(1L));
+    }
+
+    @Test
+    void testFindAccountsDoesNotCallCardServiceWhileCircuitIsOpen() {
+        Account first = sampleAccount();
+        Page<Account> page = new PageImpl<>(List.of(first));
+        when(accountRepository.findWithFilters(null, null, PageRequest.of(0, 10))).thenReturn(page);
+        circuitBreaker.transitionToOpenState();
+
+        AccountsListResponseDto dto = accountService.findAccounts(null, null, null, 0, 10, true);
+
+        assertTrue(dto.getAccounts().get(0).isCardsUnavailable());
+        verify(cardServiceClient, never()).getCardsByAccountIds(anyList());
+        verify(cardServiceClient, never()).getCardsByAccountId(anyLong());
     }
     @Test
     void testFindAccountsWithCardAlias() {
         Account account = sampleAccount();
-        Page<Account> page = new PageImpl<>(List.of(account));
         AccountDto.CardInfo card = sampleCard();
         card.setCardAlias("TestCardAlias");
 
-        when(accountRepository.findWithFilters("IBAN123", "BIC001", PageRequest.of(0, 10))).thenReturn(page);
-        when(cardServiceClient.getCardsByAccountId(anyLong())).thenReturn(List.of(card));
-        System.out.println("Test customer ID: " + account.getCustomerId());
+        when(cardServiceClient.findAccountIdsByCardAlias("TestCardAlias", 0L, AccountServiceImpl.ALIAS_MATCHES_CHUNK)).thenReturn(List.of(1L));
+        when(cardServiceClient.findAccountIdsByCardAlias("TestCardAlias", 1L, AccountServiceImpl.ALIAS_MATCHES_CHUNK)).thenReturn(Collections.emptyList());
+        when(accountRepository.findIdsWithFilters("IBAN123", "BIC001", List.of(1L))).thenReturn(List.of(1L));
+        when(accountRepository.findAllById(List.of(1L))).thenReturn(List.of(account));
+        when(cardServiceClient.getCardsByAccountIds(anyList())).thenReturn(Map.of(1L, List.of(card)));
         // Using the exact same card alias as what you set above
-        AccountsListResponseDto dto = accountService.findAccounts("IBAN123", "BIC001", "TestCardAlias", 0, 10);
+        AccountsListResponseDto dto = accountService.findAccounts("IBAN123", "BIC001", "TestCardAlias", 0, 10, true);
 
         assertEquals(1, dto.getAccounts().size());
+        assertEquals(-1, dto.getTotalItems());
+        assertFalse(dto.getHasNext());
+        verify(accountRepository, never()).findWithFilters(any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void testFindAccountsWithCardAliasIntersectsTheMatchesChunkByChunk() {
+        int chunk = AccountServiceImpl.ALIAS_MATCHES_CHUNK;
+        List<Long> firstChunk = LongStream.rangeClosed(1, chunk).boxed().toList();
+        List<Long> secondChunk = List.of(chunk + 1L, chunk + 2L);
+        Account second = sampleAccount();
+        second.setId(chunk + 1L);
+        Account third = sampleAccount();
+        third.setId(chunk + 2L);
+
+        when(cardServiceClient.findAccountIdsByCardAlias("Alias", 0L, chunk)).thenReturn(firstChunk);
+        when(cardServiceClient.findAccountIdsByCardAlias("Alias", (long) chunk, chunk)).thenReturn(secondChunk);
+        when(accountRepository.findIdsWithFilters("IBAN", null, firstChunk)).thenReturn(List.of(7L));
+        when(accountRepository.findIdsWithFilters("IBAN", null, secondChunk)).thenReturn(secondChunk);
+        when(accountRepository.findAllById(List.of(chunk + 1L))).thenReturn(List.of(second));
+        when(cardServiceClient.getCardsByAccountIds(anyList())).thenReturn(Map.of());
+
+        AccountsListResponseDto dto = accountService.findAccounts("IBAN", null, "Alias", 1, 1, false);
+
+        assertEquals(1, dto.getAccounts().size());
+        assertEquals(String.valueOf(chunk + 1), dto.getAccounts().get(0).getId());
+        assertTrue(dto.getHasNext());
+        /* The page and the row past it are known after the second chunk, the rest of the matches is not read*/
+        verify(cardServiceClient, never()).findAccountIdsByCardAlias("Alias", chunk + 2L, chunk);
+    }
+
+    @Test
+    void testFindAccountsWithCardAliasAndTotalDoesNotCountTheMatches() {
+        int chunk = AccountServiceImpl.ALIAS_MATCHES_CHUNK;
+        List<Long> firstChunk = LongStream.rangeClosed(1, chunk).boxed().toList();
+        Account account = sampleAccount();
+
+        when(cardServiceClient.findAccountIdsByCardAlias("Alias", 0L, chunk)).thenReturn(firstChunk);
+        when(accountRepository.findIdsWithFilters(null, null, firstChunk)).thenReturn(firstChunk);
+        when(accountRepository.findAllById(List.of(1L))).thenReturn(List.of(account));
+        when(cardServiceClient.getCardsByAccountIds(anyList())).thenReturn(Map.of());
+
+        AccountsListResponseDto dto = accountService.findAccounts(null, null, "Alias", 0, 1, true);
+
+        assertEquals(1, dto.getAccounts().size());
+        assertTrue(dto.getHasNext());
+        assertEquals(-1, dto.getTotalItems());
+        assertEquals(-1, dto.getTotalPages());
+        verify(cardServiceClient, never()).findAccountIdsByCardAlias("Alias", (long) chunk, chunk);
     }
 
    /* @Test
@@ -164,25 +407,87 @@ class AccountServiceImplTest {
         when(accountRepository.findWithFilters("IBAN123", "BIC001", PageRequest.of(0, 10))).thenReturn(page);
         when(cardServiceClient.getCardsByAccountId(anyLong())).thenReturn(List.of(card));
 
-        AccountsListResponseDto dto = accountService.findAccounts("IBAN123", "BIC001", "TestCardAlias", 0, 10);
+        AccountsListResponseDto dto = accountService.findAccounts("IBAN123", "BIC001", "TestCardAlias", 0, 10, true);
 
         assertEquals(1, dto.getAccounts().size());
     }*/
 
     @Test
     void testFindAccountsWithCardAliasNoMatch() {
-        Account account = sampleAccount();
-        Page<Account> page = new PageImpl<>(List.of(account));
+        when(cardServiceClient.findAccountIdsByCardAlias("UnmatchedAlias", 0L, AccountServiceImpl.ALIAS_MATCHES_CHUNK))
+                .thenReturn(Collections.emptyList());
 
-        AccountDto.CardInfo card = sampleCard();
-        card.setCardAlias("AnotherCard");
+        AccountsListResponseDto dto = accountService.findAccounts("IBAN123", "BIC001", "UnmatchedAlias", 0, 10, true);
 
-        when(accountRepository.findWithFilters("IBAN123", "BIC001", PageRequest.of(0, 10))).thenReturn(page);
-        when(cardServiceClient.getCardsByAccountId(anyLong())).thenReturn(List.of(card));
+        assertEquals(0, dto.getAccounts().size());
+        assertEquals(-1, dto.getTotalItems());
+        verify(accountRepository, never()).findIdsWithFilters(any(), any(), anyCollection());
+        verify(cardServiceClient, never()).getCardsByAccountIds(anyList());
+    }
 
-        AccountsListResponseDto dto = accountService.findAccounts("IBAN123", "BIC001", "UnmatchedAlias", 0, 10);
+    @Test
+    void testFindAccountsWithoutTotalSkipsCountQuery() {
+        when(accountRepository.findSliceWithFilters("IBAN123", null, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(sampleAccount()), PageRequest.of(0, 1), true));
+        when(cardServiceClient.getCardsByAccountIds(List.of(1L))).thenReturn(Map.of(1L, List.of(sampleCard())));
 
-        assertEquals(0, dto.getAccounts().size());
+        AccountsListResponseDto dto = accountService.findAccounts("IBAN123", null, null, 0, 1, false);
+
+        assertEquals(1, dto.getAccounts().size());
+        assertEquals(-1, dto.getTotalItems());
+        assertTrue(dto.getHasNext());
+        assertNull(dto.getTotalsApproximate());
+        verify(accountRepository, never()).findWithFilters(any(), any(), any(Pageable.class));
+        verifyNoInteractions(rowCountEstimator);
+    }
+
+    @Test
+    void testFindAccountsUnfilteredUsesApproximateTotals() {
+        LocalDateTime asOf = LocalDateTime.now();
+        when(rowCountEstimator.getEstimate()).thenReturn(Optional.of(new RowCountEstimator.Estimate(42, asOf)));
+        when(accountRepository.findSliceWithFilters(null, null, PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(List.of(sampleAccount()), PageRequest.of(0, 10), true));
+        when(cardServiceClient.getCardsByAccountIds(List.of(1L))).thenReturn(Map.of(1L, List.of(sampleCard())));
+
+        AccountsListResponseDto dto = accountService.findAccounts(null, null, null, 0, 10, true);
+
+        assertEquals(42, dto.getTotalItems());
+        assertEquals(5, dto.getTotalPages());
+        assertTrue(dto.getTotalsApproximate());
+        assertEquals(asOf, dto.getTotalsAsOf());
+        verify(accountRepository, never()).findWithFilters(any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void testFindAccountsAfterReturnsNextCursor() {
+        Account first = sampleAccount();
+        Account second = sampleAccount();
+        second.setId(2L);
+        when(accountRepository.findWithFiltersAfter(null, null, 0L, Limit.of(2))).thenReturn(List.of(first, second));
+        when(cardServiceClient.getCardsByAccountIds(List.of(1L))).thenReturn(Map.of(1L, List.of(sampleCard())));
+
+        AccountsListResponseDto dto = accountService.findAccountsAfter(null, null, null, null, 1);
+
+        assertEquals(1, dto.getAccounts().size());
+        assertEquals("1", dto.getAccounts().get(0).getId());
+        assertEquals(PageCursor.encode(1L), dto.getNextCursor());
+        assertEquals(-1, dto.getTotalItems());
+        verify(accountRepository, never()).findWithFilters(any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void testFindAccountsAfterWithCardAliasOnLastPage() {
+        Account second = sampleAccount();
+        second.setId(2L);
+        when(cardServiceClient.findAccountIdsByCardAlias("Alias", 1L, AccountServiceImpl.ALIAS_MATCHES_CHUNK)).thenReturn(List.of(2L));
+        when(cardServiceClient.findAccountIdsByCardAlias("Alias", 2L, AccountServiceImpl.ALIAS_MATCHES_CHUNK)).thenReturn(Collections.emptyList());
+        when(accountRepository.findWithFiltersAfter(null, null, List.of(2L), 1L, Limit.of(11))).thenReturn(List.of(second));
+        when(cardServiceClient.getCardsByAccountIds(List.of(2L))).thenReturn(Map.of(2L, List.of(sampleCard())));
+
+        AccountsListResponseDto dto = accountService.findAccountsAfter(null, null, "Alias", PageCursor.encode(1L), 10);
+
+        assertEquals(1, dto.getAccounts().size());
+        assertNull(dto.getNextCursor());
     }
 
     @Test
@@ -197,6 +502,7 @@ class AccountServiceImplTest {
         AccountDto dto = accountService.findById(1L);
         assertNotNull(dto);
 
-        assertNull(dto.getCards());
+        assertTrue(dto.getCards().isEmpty());
+        assertTrue(dto.isCardsUnavailable());
     }
 }
\ No newline at end of file
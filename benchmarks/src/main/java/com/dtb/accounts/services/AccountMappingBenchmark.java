@@ -0,0 +1,71 @@
+package com.dtb.accounts.services;
+
+import com.dtb.accounts.dtos.AccountDto;
+import com.dtb.accounts.models.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/* Account page mapping with hydrated cards, every tenth account has no card lookup result (cardsUnavailable)*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountMappingBenchmark {
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private List<Account> accounts;
+    private HydratedCards cardsByAccount;
+
+    @Setup
+    public void setUp() {
+        accounts = new ArrayList<>(pageSize);
+        Map<Long, List<AccountDto.CardInfo>> cards = new HashMap<>();
+        for (int i = 0; i < pageSize; i++) {
+            Account account = new Account();
+            account.setId(i);
+            account.setCustomerId(String.valueOf(10_000 + i));
+            account.setIban(String.format("KE%020d", i));
+            account.setBicSwift("DTBKKENA");
+            accounts.add(account);
+            if (i % 10 != 9) {
+                cards.put((long) i, List.of(cardInfo(i * 2L, "PHYSICAL"), cardInfo(i * 2L + 1, "VIRTUAL")));
+            }
+        }
+        cardsByAccount = HydratedCards.fresh(cards);
+    }
+
+    private static AccountDto.CardInfo cardInfo(long cardId, String type) {
+        AccountDto.CardInfo card = new AccountDto.CardInfo();
+        card.setCardId(cardId);
+        card.setCardAlias("Card " + cardId);
+        card.setType(type);
+        return card;
+    }
+
+    @Benchmark
+    public List<AccountDto> toDto() {
+        List<AccountDto> dtos = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            dtos.add(AccountServiceImpl.toDto(account, cardsByAccount));
+        }
+        return dtos;
+    }
+}
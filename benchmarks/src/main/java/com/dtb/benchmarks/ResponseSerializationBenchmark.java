@@ -0,0 +1,131 @@
+package com.dtb.benchmarks;
+
+import com.dtb.accounts.dtos.AccountDto;
+import com.dtb.accounts.dtos.AccountsListResponseDto;
+import com.dtb.cards.dtos.CardDto;
+import com.dtb.cards.dtos.CardListResponseDto;
+import com.dtb.cards.enums.CardType;
+import com.dtb.customer.dtos.CustomerDto;
+import com.dtb.customer.dtos.CustomerListResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Serialization of the three list responses with the same Jackson setup Spring MVC uses (java.time module, ISO dates).
+   Writers are resolved once in setUp like the cached serializers of the shared ObjectMapper in the services*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private ObjectWriter cardsWriter;
+    private ObjectWriter accountsWriter;
+    private ObjectWriter customersWriter;
+    private CardListResponseDto cards;
+    private AccountsListResponseDto accounts;
+    private CustomerListResponseDTO customers;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cardsWriter = objectMapper.writerFor(CardListResponseDto.class);
+        accountsWriter = objectMapper.writerFor(AccountsListResponseDto.class);
+        customersWriter = objectMapper.writerFor(CustomerListResponseDTO.class);
+
+        int totalPages = 100;
+        long totalItems = (long) pageSize * totalPages;
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+        List<CardDto> cardDtos = new ArrayList<>(pageSize);
+        List<AccountDto> accountDtos = new ArrayList<>(pageSize);
+        List<CustomerDto> customerDtos = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            cardDtos.add(new CardDto((long) i, "Card " + i, 1000L + i / 2, i % 2 == 0 ? CardType.PHYSICAL : CardType.VIRTUAL,
+                    "****-****-****-" + String.format("%04d", i % 10_000), "***"));
+
+            AccountDto account = new AccountDto();
+            account.setId(String.valueOf(i));
+            account.setCustomerId(String.valueOf(10_000 + i));
+            account.setIban(String.format("KE%020d", i));
+            account.setBicSwift("DTBKKENA");
+            account.setCards(List.of(cardInfo(i * 2L, "PHYSICAL"), cardInfo(i * 2L + 1, "VIRTUAL")));
+            accountDtos.add(account);
+
+            CustomerDto customer = new CustomerDto();
+            customer.setId(String.valueOf(i));
+            customer.setFirstName("First" + i);
+            customer.setLastName("Last" + i);
+            customer.setOtherName(i % 3 == 0 ? null : "Other" + i);
+            customer.setCreatedAt(createdAt.plusMinutes(i));
+            customerDtos.add(customer);
+        }
+
+        cards = new CardListResponseDto();
+        cards.setCards(cardDtos);
+        cards.setPage(0);
+        cards.setSize(pageSize);
+        cards.setTotalItems(totalItems);
+        cards.setTotalPages(totalPages);
+
+        accounts = new AccountsListResponseDto();
+        accounts.setAccounts(accountDtos);
+        accounts.setPage(0);
+        accounts.setSize(pageSize);
+        accounts.setTotalItems(totalItems);
+        accounts.setTotalPages(totalPages);
+
+        customers = new CustomerListResponseDTO();
+        customers.setCustomers(customerDtos);
+        customers.setPage(0);
+        customers.setSize(pageSize);
+        customers.setTotalItems(totalItems);
+        customers.setTotalPages(totalPages);
+    }
+
+    private static AccountDto.CardInfo cardInfo(long cardId, String type) {
+        AccountDto.CardInfo card = new AccountDto.CardInfo();
+        card.setCardId(cardId);
+        card.setCardAlias("Card " + cardId);
+        card.setType(type);
+        return card;
+    }
+
+    @Benchmark
+    public byte[] cardList() throws JsonProcessingException {
+        return cardsWriter.writeValueAsBytes(cards);
+    }
+
+    @Benchmark
+    public byte[] accountList() throws JsonProcessingException {
+        return accountsWriter.writeValueAsBytes(accounts);
+    }
+
+    @Benchmark
+    public byte[] customerList() throws JsonProcessingException {
+        return customersWriter.writeValueAsBytes(customers);
+    }
+}
@@ -0,0 +1,65 @@
+package com.dtb.cards.dtos;
+
+import com.dtb.cards.enums.CardType;
+import com.dtb.cards.models.Card;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Card page mapping as done by every card list response, and the PAN masking applied per card*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardMappingBenchmark {
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private List<Card> cards;
+    private String pan;
+
+    @Setup
+    public void setUp() {
+        cards = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Card card = new Card();
+            card.setCardId((long) i);
+            card.setCardAlias("Card " + i);
+            card.setCardAccountId(1000L + i / 2);
+            card.setCardType(i % 2 == 0 ? CardType.PHYSICAL : CardType.VIRTUAL);
+            card.setCardPan(String.format("4111%012d", i));
+            card.setCardCvv(String.format("%03d", i % 1000));
+            cards.add(card);
+        }
+        pan = "4111111111111111";
+    }
+
+    @Benchmark
+    public List<CardDto> fromEntityMasked() {
+        return CardDto.fromEntityDto(cards, false);
+    }
+
+    @Benchmark
+    public List<CardDto> fromEntityUnmasked() {
+        return CardDto.fromEntityDto(cards, true);
+    }
+
+    @Benchmark
+    public String maskPan() {
+        return CardDto.maskPan(pan);
+    }
+}
@@ -0,0 +1,58 @@
+package com.dtb.customer.services;
+
+import com.dtb.customer.dtos.CustomerDto;
+import com.dtb.customer.models.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/* Customer page mapping as done by every customer list response and the export*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerMappingBenchmark {
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private List<Customer> customers;
+
+    @Setup
+    public void setUp() {
+        customers = new ArrayList<>(pageSize);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 8, 0);
+        for (int i = 0; i < pageSize; i++) {
+            Customer customer = new Customer();
+            customer.setId((long) i);
+            customer.setFirstName("First" + i);
+            customer.setLastName("Last" + i);
+            customer.setOtherName(i % 3 == 0 ? null : "Other" + i);
+            customer.setCreatedAt(createdAt.plusMinutes(i));
+            customers.add(customer);
+        }
+    }
+
+    @Benchmark
+    public List<CustomerDto> mapEntitytoDto() {
+        List<CustomerDto> dtos = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            dtos.add(CustomerServiceImpl.mapEntitytoDto(customer));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,60 @@
+-- Card search: sequential scan vs. pg_trgm GIN index, at 1M and 10M cards.
+--
+--   psql -h localhost -U postgres -d bank-db -v rows=1000000  -f card-service/benchmark/card-search-trigram.sql
+--   psql -h localhost -U postgres -d bank-db -v rows=10000000 -f card-service/benchmark/card-search-trigram.sql
+--
+-- Works on a copy of the cards table in its own schema, the service tables are not touched.
+-- Each query runs with index scans disabled (scan) and enabled (indexed), compare the
+-- "Execution Time" lines. The statements are the ones CardSearchRepositoryImpl generates.
+
+\set ON_ERROR_STOP on
+\timing on
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+DROP SCHEMA IF EXISTS card_search_bench CASCADE;
+CREATE SCHEMA card_search_bench;
+SET search_path = card_search_bench;
+
+CREATE TABLE cards (LIKE public.cards INCLUDING DEFAULTS);
+INSERT INTO cards (card_id, card_alias, card_account_id, card_type, card_pan, card_cvv)
+SELECT g,
+       'Alias ' || md5(g::text),
+       g / 2,
+       CASE WHEN g % 2 = 0 THEN 'VIRTUAL' ELSE 'PHYSICAL' END,
+       lpad((4000000000000000 + g * 7919)::text, 16, '0'),
+       lpad((g % 1000)::text, 3, '0')
+FROM generate_series(1, :rows) g;
+
+CREATE INDEX idx_cards_card_alias_trgm ON cards USING gin (card_alias gin_trgm_ops);
+CREATE INDEX idx_cards_card_pan_trgm ON cards USING gin (card_pan gin_trgm_ops);
+ANALYZE cards;
+
+-- Substring on alias (GET /api/cards?cardAlias=3f2a9)
+SET enable_bitmapscan = off;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM cards WHERE card_alias LIKE '%3f2a9%' ESCAPE '\' OFFSET 0 LIMIT 10;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM cards WHERE card_alias LIKE '%3f2a9%' ESCAPE '\';
+SET enable_bitmapscan = on;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM cards WHERE card_alias LIKE '%3f2a9%' ESCAPE '\' OFFSET 0 LIMIT 10;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM cards WHERE card_alias LIKE '%3f2a9%' ESCAPE '\';
+
+-- Substring on PAN (GET /api/cards?pan=79190)
+SET enable_bitmapscan = off;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM cards WHERE card_pan LIKE '%79190%' ESCAPE '\';
+SET enable_bitmapscan = on;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM cards WHERE card_pan LIKE '%79190%' ESCAPE '\';
+
+-- Leading PAN digits (GET /api/cards?pan=4000000001), still a contains pattern as the API generates
+SET enable_bitmapscan = off;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM cards WHERE card_pan LIKE '%4000000001%' ESCAPE '\';
+SET enable_bitmapscan = on;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM cards WHERE card_pan LIKE '%4000000001%' ESCAPE '\';
+
+-- The previous catch-all form, as a generic plan: the OR keeps the planner off the index
+PREPARE catch_all(text) AS
+    SELECT count(*) FROM cards WHERE ($1 IS NULL OR card_alias LIKE '%' || $1 || '%');
+SET plan_cache_mode = force_generic_plan;
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE catch_all('3f2a9');
+RESET plan_cache_mode;
+
+RESET search_path;
+DROP SCHEMA card_search_bench CASCADE;
@@ -0,0 +1,15 @@
+package com.dtb.cards.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+
+/* Repository spans and the span file come from platform-common (TracingAutoConfiguration)*/
+@Configuration
+public class TracingConfig {
+    /* Applied to the @Async executor, the card change notification to accounts-service stays in the trace of the change*/
+    @Bean
+    public ContextPropagatingTaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+}
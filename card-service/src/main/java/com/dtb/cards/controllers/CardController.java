@@ -1,5 +1,6 @@
 package com.dtb.cards.controllers;
 
+import com.dtb.cards.dtos.BulkCardResponseDto;
 import com.dtb.cards.dtos.CardDto;
 import com.dtb.cards.dtos.CardListResponseDto;
 import com.dtb.cards.dtos.CreateCardDto;
@@ -13,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/cards")
@@ -23,17 +25,23 @@ public class CardController {
         this.cardService = cardService;
     }
     @GetMapping
-    @Operation(summary = "Get paginated list of Cards")
+    @Operation(summary = "Get paginated list of Cards", description = "Pass after and/or limit to page by cursor instead of page number")
     public ResponseEntity<CardListResponseDto> getCards(
             @RequestParam(required = false) String cardAlias,
             @RequestParam(required = false) CardType type,
             @RequestParam(required = false) String pan,
             @RequestParam(defaultValue = "false") boolean showUnmasked,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Set to false to skip the total count and only report hasNext") @RequestParam(defaultValue = "true") boolean withTotal,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size in cursor mode") @RequestParam(required = false) Integer limit
             ) {
 
-        CardListResponseDto response = cardService.findCards(cardAlias, type, pan,showUnmasked, page, size);
+        if (after != null || limit != null) {
+            return ResponseEntity.ok(cardService.findCardsAfter(cardAlias, type, pan, showUnmasked, after, limit != null ? limit : size));
+        }
+        CardListResponseDto response = cardService.findCards(cardAlias, type, pan,showUnmasked, page, size, withTotal);
         return ResponseEntity.ok(response);
     }
     @GetMapping("/{id}")
@@ -52,12 +60,35 @@ public class CardController {
         List<CardDto> card = cardService.getCardByAccountId(id, showUnmasked);
         return ResponseEntity.ok(card);
     }
+    @GetMapping("/accounts")
+    @Operation(summary = "Get AccountIds by card alias", description = "Returns the ids of accounts holding a card whose alias contains the given text, "
+            + "in id order and at most 1000 at a time. Pass the last id returned as after to get the next ones, an empty list ends the matches")
+    public ResponseEntity<List<Long>> getAccountIdsByCardAlias(@RequestParam String cardAlias,
+                                                @Parameter(description = "Last account id of the previous page") @RequestParam(required = false, defaultValue = "0") Long after,
+                                                @Parameter(description = "Page size, at most 1000") @RequestParam(required = false, defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(cardService.findAccountIdsByCardAlias(cardAlias, after, limit));
+    }
+    @PostMapping("/accounts/batch")
+    @Operation(summary = "Get cards for a batch of AccountIds", description = "Returns the cards of every requested account grouped by account id, "
+            + "at most 5000 accounts per request (413 above)")
+    public ResponseEntity<Map<Long, List<CardDto>>> getCardsByAccountIds(@RequestBody List<Long> accountIds,
+                                                @Parameter(description = "Show unmasked PAN and CVV") @RequestParam(required = false, defaultValue = "false") boolean showUnmasked) {
+
+        Map<Long, List<CardDto>> cards = cardService.getCardsByAccountIds(accountIds, showUnmasked);
+        return ResponseEntity.ok(cards);
+    }
     @PostMapping
     @Operation(summary = "Create a new card")
     public ResponseEntity<CardDto> createCard( @RequestBody CreateCardDto createCardDto) {
         CardDto createdCard = cardService.createCard(createCardDto);
         return new ResponseEntity<>(createdCard, HttpStatus.CREATED);
     }
+    @PostMapping("/bulk")
+    @Operation(summary = "Create cards in bulk", description = "Applies the per-account card limits to every item and creates the accepted ones, "
+            + "results are returned in request order")
+    public ResponseEntity<BulkCardResponseDto> createCards(@RequestBody List<CreateCardDto> createCardDtos) {
+        return ResponseEntity.ok(cardService.createCards(createCardDtos));
+    }
 
     @PutMapping("/{id}/alias")
     @Operation(summary = "Update card alias",description = "Updates the alias of an existing card")
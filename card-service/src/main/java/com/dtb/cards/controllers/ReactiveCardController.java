@@ -0,0 +1,44 @@
+package com.dtb.cards.controllers;
+
+import com.dtb.cards.dtos.CardDto;
+import com.dtb.cards.services.ReactiveCardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/* The card lookups of CardController served by R2DBC, the Tomcat thread is released while the query runs and
+   the response is written when the Mono completes (Spring MVC async request processing)*/
+@RestController
+@RequestMapping("/api/reactive/cards")
+@Tag(name = "Reactive Card Lookups", description = "Non-blocking read-only card lookups, same responses as the Card API")
+public class ReactiveCardController {
+    private final ReactiveCardService reactiveCardService;
+    public ReactiveCardController(ReactiveCardService reactiveCardService) {
+        this.reactiveCardService = reactiveCardService;
+    }
+    @GetMapping("/{id}")
+    @Operation(summary = "Get card by ID")
+    public Mono<ResponseEntity<CardDto>> getCardById(@PathVariable Long id,
+            @Parameter(description = "Show unmasked PAN and CVV") @RequestParam(required = false, defaultValue = "false") boolean showUnmasked) {
+        return reactiveCardService.getCardById(id, showUnmasked).map(ResponseEntity::ok);
+    }
+    @GetMapping("/{id}/accounts")
+    @Operation(summary = "Get card by AccountId")
+    public Mono<ResponseEntity<List<CardDto>>> getCardAliasByCustomerId(@PathVariable Long id,
+            @Parameter(description = "Show unmasked PAN and CVV") @RequestParam(required = false, defaultValue = "false") boolean showUnmasked) {
+        return reactiveCardService.getCardByAccountId(id, showUnmasked).map(ResponseEntity::ok);
+    }
+    @PostMapping("/accounts/batch")
+    @Operation(summary = "Get cards for a batch of AccountIds", description = "Returns the cards of every requested account grouped by account id, "
+            + "at most 5000 accounts per request (413 above)")
+    public Mono<ResponseEntity<Map<Long, List<CardDto>>>> getCardsByAccountIds(@RequestBody List<Long> accountIds,
+            @Parameter(description = "Show unmasked PAN and CVV") @RequestParam(required = false, defaultValue = "false") boolean showUnmasked) {
+        return reactiveCardService.getCardsByAccountIds(accountIds, showUnmasked).map(ResponseEntity::ok);
+    }
+}
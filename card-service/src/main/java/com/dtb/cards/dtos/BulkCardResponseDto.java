@@ -0,0 +1,16 @@
+package com.dtb.cards.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkCardResponseDto {
+    private int accepted;
+    private int rejected;
+    private List<BulkCardResultDto> results;
+}
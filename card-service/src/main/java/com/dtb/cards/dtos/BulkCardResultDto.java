@@ -0,0 +1,19 @@
+package com.dtb.cards.dtos;
+
+import com.dtb.cards.enums.BulkCardStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/* Outcome of one item of a bulk request, index is its position in the request array*/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkCardResultDto {
+    private int index;
+    private BulkCardStatus status;
+    private Long cardId;
+    private String reason;
+}
@@ -2,6 +2,7 @@ package com.dtb.cards.dtos;
 
 import com.dtb.cards.enums.CardType;
 import com.dtb.cards.models.Card;
+import com.dtb.cards.models.CardView;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,24 +22,36 @@ public class CardDto {
     private String cvv;
 
     public static CardDto fromEntity(Card card, boolean showUnmasked) {
+        return of(card.getCardId(), card.getCardAlias(), card.getCardAccountId(), card.getCardType(),
+                card.getCardPan(), card.getCardCvv(), showUnmasked);
+    }
+
+    /* Same mapping for the R2DBC read model of the reactive endpoints*/
+    public static CardDto fromView(CardView card, boolean showUnmasked) {
+        return of(card.getCardId(), card.getCardAlias(), card.getCardAccountId(), card.getCardType(),
+                card.getCardPan(), card.getCardCvv(), showUnmasked);
+    }
+
+    private static CardDto of(Long id, String cardAlias, Long accountId, CardType type, String pan, String cvv,
+                              boolean showUnmasked) {
         CardDto dto = new CardDto();
-        dto.setId(card.getCardId());
-        dto.setCardAlias(card.getCardAlias());
-        dto.setAccountId(card.getCardAccountId());
-        dto.setType(card.getCardType());
+        dto.setId(id);
+        dto.setCardAlias(cardAlias);
+        dto.setAccountId(accountId);
+        dto.setType(type);
 
         if (showUnmasked) {
-            dto.setPan(card.getCardPan());
-            dto.setCvv(card.getCardCvv());
+            dto.setPan(pan);
+            dto.setCvv(cvv);
         } else {
-            dto.setPan(maskPan(card.getCardPan()));
+            dto.setPan(maskPan(pan));
             dto.setCvv("***");
         }
 
         return dto;
     }
 
-    private static String maskPan(String pan) {
+    static String maskPan(String pan) {
         if (pan == null || pan.length() < 4) {
             return pan;
         }
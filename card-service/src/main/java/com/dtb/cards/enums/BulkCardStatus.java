@@ -0,0 +1,6 @@
+package com.dtb.cards.enums;
+
+public enum BulkCardStatus {
+    ACCEPTED,
+    REJECTED
+}
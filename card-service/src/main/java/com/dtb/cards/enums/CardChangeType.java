@@ -0,0 +1,7 @@
+package com.dtb.cards.enums;
+
+public enum CardChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
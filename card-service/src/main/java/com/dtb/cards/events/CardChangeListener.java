@@ -0,0 +1,21 @@
+package com.dtb.cards.events;
+
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class CardChangeListener {
+    private final CardChangeNotifier cardChangeNotifier;
+
+    public CardChangeListener(CardChangeNotifier cardChangeNotifier) {
+        this.cardChangeNotifier = cardChangeNotifier;
+    }
+
+    /* Sent after commit, so a reload triggered by the notification sees the change, and off the request thread*/
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCardChanged(CardChangedEvent event) {
+        cardChangeNotifier.cardsChanged(event);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dtb.cards.events;
+
+/**
+ * Channel used to tell other services that the cards of an account changed,
+ * so they can drop cached copies. Selected with card-events.notifier.
+ */
+public interface CardChangeNotifier {
+    void cardsChanged(CardChangedEvent event);
+}
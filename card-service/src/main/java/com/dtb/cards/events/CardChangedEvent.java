@@ -0,0 +1,15 @@
+package com.dtb.cards.events;
+
+import com.dtb.cards.enums.CardChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardChangedEvent {
+    private Long accountId;
+    private Long cardId;
+    private CardChangeType changeType;
+}
@@ -0,0 +1,28 @@
+package com.dtb.cards.events;
+
+import com.dtb.cards.feigns.AccountsServiceClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "card-events.notifier", havingValue = "http", matchIfMissing = true)
+public class HttpCardChangeNotifier implements CardChangeNotifier {
+    private final AccountsServiceClient accountsServiceClient;
+
+    public HttpCardChangeNotifier(AccountsServiceClient accountsServiceClient) {
+        this.accountsServiceClient = accountsServiceClient;
+    }
+
+    @Override
+    public void cardsChanged(CardChangedEvent event) {
+        try {
+            accountsServiceClient.cardsChanged(event);
+        } catch (Exception e) {
+            /* Consumers fall back to their cache TTL when a notification is lost*/
+            log.warn("Failed to notify accounts-service of card change for account {}: {}",
+                    event.getAccountId(), e.getMessage());
+        }
+    }
+}
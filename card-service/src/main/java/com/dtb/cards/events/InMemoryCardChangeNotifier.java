@@ -0,0 +1,31 @@
+package com.dtb.cards.events;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Local stand-in for the notification channel, for tests and for running card-service
+ * without accounts-service. Keeps the published events in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "card-events.notifier", havingValue = "in-memory")
+public class InMemoryCardChangeNotifier implements CardChangeNotifier {
+    private final ConcurrentLinkedQueue<CardChangedEvent> events = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void cardsChanged(CardChangedEvent event) {
+        events.add(event);
+    }
+
+    public List<CardChangedEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,7 @@
+package com.dtb.cards.exceptions;
+
+public class BulkRequestTooLargeException extends RuntimeException {
+    public BulkRequestTooLargeException(String message){
+        super(message);
+    }
+}
@@ -1,5 +1,6 @@
 package com.dtb.cards.exceptions;
 
+import com.dtb.common.exceptions.InvalidCursorException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
@@ -46,5 +47,13 @@ public class ExceptionsController {
     public ResponseEntity<String> recordNotFoundExecption(RecordNotFoundException ex) {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
+    @ExceptionHandler(BulkRequestTooLargeException.class)
+    public ResponseEntity<String> bulkRequestTooLargeException(BulkRequestTooLargeException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> invalidCursorException(InvalidCursorException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
 
 }
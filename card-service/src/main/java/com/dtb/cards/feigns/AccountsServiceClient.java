@@ -0,0 +1,12 @@
+package com.dtb.cards.feigns;
+
+import com.dtb.cards.events.CardChangedEvent;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+@FeignClient(name = "accounts-service", url = "${accounts-service.url}")
+public interface AccountsServiceClient {
+    @PostMapping("/api/card-events")
+    void cardsChanged(@RequestBody CardChangedEvent event);
+}
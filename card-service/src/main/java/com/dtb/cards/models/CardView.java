@@ -0,0 +1,19 @@
+package com.dtb.cards.models;
+
+import com.dtb.cards.enums.CardType;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Data
+/* Read-only R2DBC mapping of the cards table for the reactive read path, cards are written through Card*/
+@Table("cards")
+public class CardView {
+    @Id
+    private Long cardId;
+    private String cardAlias;
+    private Long cardAccountId;
+    private CardType cardType;
+    private String cardPan;
+    private String cardCvv;
+}
@@ -0,0 +1,105 @@
+package com.dtb.cards.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Per-account card counters in card_account_counts. A counter only moves when the new value stays
+ * within the limit, and the row lock taken by that update makes concurrent creates for the same
+ * account wait for each other while other accounts are unaffected. Must run inside the transaction
+ * that inserts or deletes the cards so a rollback also undoes the counter change.
+ */
+@Repository
+@Timed("jdbc.repository.invocations")
+public class CardCountRepository {
+    /* On Postgres the counter row is created or conditionally incremented in a single statement*/
+    private static final String UPSERT_POSTGRES =
+            "INSERT INTO card_account_counts AS c (account_id, card_count) VALUES (?, ?) " +
+            "ON CONFLICT (account_id) DO UPDATE SET card_count = c.card_count + EXCLUDED.card_count " +
+            "WHERE c.card_count + EXCLUDED.card_count <= ?";
+    private static final String UPSERT_ALL_POSTGRES =
+            "INSERT INTO card_account_counts AS c (account_id, card_count) SELECT * FROM unnest(?::bigint[], ?::int[]) " +
+            "ON CONFLICT (account_id) DO UPDATE SET card_count = c.card_count + EXCLUDED.card_count " +
+            "WHERE c.card_count + EXCLUDED.card_count <= ? RETURNING account_id";
+    private static final String INCREMENT =
+            "UPDATE card_account_counts SET card_count = card_count + ? WHERE account_id = ? AND card_count + ? <= ?";
+    private static final String INSERT_IF_ABSENT =
+            "INSERT INTO card_account_counts (account_id, card_count) " +
+            "SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM card_account_counts WHERE account_id = ?)";
+    private static final String DECREMENT =
+            "UPDATE card_account_counts SET card_count = card_count - 1 WHERE account_id = ? AND card_count > 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public CardCountRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /* Adds cards to the account's counter, false when that would take it above limit*/
+    public boolean tryAdd(Long accountId, int cards, int limit) {
+        if (cards > limit) {
+            return false;
+        }
+        if (isPostgres()) {
+            return jdbcTemplate.update(UPSERT_POSTGRES, accountId, cards, limit) == 1;
+        }
+        if (jdbcTemplate.update(INCREMENT, cards, accountId, cards, limit) == 1) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update(INSERT_IF_ABSENT, accountId, cards, accountId) == 1;
+        } catch (DuplicateKeyException e) {
+            /* A concurrent request created the row first*/
+            return jdbcTemplate.update(INCREMENT, cards, accountId, cards, limit) == 1;
+        }
+    }
+
+    /* Same as tryAdd for several accounts, returns the accounts whose counters were updated*/
+    public Set<Long> tryAddAll(Map<Long, Integer> cardsByAccount, int limit) {
+        /* Counter rows are locked in account id order so two bulk requests cannot deadlock on each other*/
+        Map<Long, Integer> sorted = new TreeMap<>(cardsByAccount);
+        sorted.values().removeIf(cards -> cards > limit);
+        Set<Long> added = new HashSet<>();
+        if (sorted.isEmpty()) {
+            return added;
+        }
+        if (isPostgres()) {
+            jdbcTemplate.query(UPSERT_ALL_POSTGRES, ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("bigint", sorted.keySet().toArray()));
+                ps.setArray(2, ps.getConnection().createArrayOf("integer", sorted.values().toArray()));
+                ps.setInt(3, limit);
+            }, rs -> {
+                added.add(rs.getLong(1));
+            });
+            return added;
+        }
+        sorted.forEach((accountId, cards) -> {
+            if (tryAdd(accountId, cards, limit)) {
+                added.add(accountId);
+            }
+        });
+        return added;
+    }
+
+    public void remove(Long accountId) {
+        jdbcTemplate.update(DECREMENT, accountId);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return postgres;
+    }
+}
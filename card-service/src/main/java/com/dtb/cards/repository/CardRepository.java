@@ -3,24 +3,33 @@ package com.dtb.cards.repository;
 import com.dtb.cards.dtos.CardDto;
 import com.dtb.cards.enums.CardType;
 import com.dtb.cards.models.Card;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-public interface CardRepository extends JpaRepository<Card,Long> {
+public interface CardRepository extends JpaRepository<Card,Long>, CardSearchRepository {
     Page<Card> findByCardId(Long cardId, Pageable pageable);
     long countByCardAccountIdAndCardType(Long cardAccountId, CardType type);
     long countByCardAccountId(Long cardAccountId);
     List<Card> findAllByCardAccountId(Long cardAccountId);
+    List<Card> findAllByCardAccountIdIn(Collection<Long> cardAccountIds);
     Optional<Card> findByCardAccountIdAndCardType(Long cardAccountId, CardType type);
 
-    @Query("SELECT c FROM Card c WHERE " +
-            "(:cardAlias IS NULL OR c.cardAlias LIKE %:cardAlias%) AND " +
-            "(:type IS NULL OR c.cardType = :type) AND " +
-            "(:pan IS NULL OR c.cardPan LIKE %:pan%)")
-    Page<Card> findCardByCardAliasOrCardPanOrCardType(@Param("cardAlias") String cardAlias, @Param("type") CardType type, @Param("pan") String pan, Pageable pageable);
+    /*Existing cards per account and type for a whole batch of accounts, used by bulk issuance to check the limits in one query*/
+    @Query("SELECT c.cardAccountId AS accountId, c.cardType AS cardType, COUNT(c) AS cards FROM Card c " +
+            "WHERE c.cardAccountId IN :accountIds GROUP BY c.cardAccountId, c.cardType")
+    List<CardTypeCount> countCardsByAccountIdsAndType(@Param("accountIds") Collection<Long> accountIds);
+
+    /*Accounts holding a matching card in id order after the given one, callers page through the matches.
+      %, _ and the escape character in the alias match themselves, as in CardSearchRepositoryImpl*/
+    @Query("SELECT DISTINCT c.cardAccountId FROM Card c WHERE c.cardAccountId > :afterId " +
+            "AND LOWER(c.cardAlias) LIKE LOWER(CONCAT('%', :#{escape(#cardAlias)}, '%')) ESCAPE :#{escapeCharacter()} " +
+            "ORDER BY c.cardAccountId")
+    List<Long> findAccountIdsByCardAlias(@Param("cardAlias") String cardAlias, @Param("afterId") Long afterId, Limit limit);
 }
@@ -0,0 +1,24 @@
+package com.dtb.cards.repository;
+
+import com.dtb.cards.enums.CardType;
+import com.dtb.cards.models.Card;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Card searches by alias, type and PAN. Null filters are left out of the generated SQL instead of being
+ * matched with "(:x IS NULL OR ...)", so Postgres can use the trigram indexes on card_alias and card_pan.
+ */
+public interface CardSearchRepository {
+    Page<Card> findCardByCardAliasOrCardPanOrCardType(String cardAlias, CardType type, String pan, Pageable pageable);
+
+    /*Same filters without the count query, reads one extra row to tell whether a next page exists*/
+    Slice<Card> findCardSliceByCardAliasOrCardPanOrCardType(String cardAlias, CardType type, String pan, Pageable pageable);
+
+    /*Keyset page: rows after the given id in id order, no count query*/
+    List<Card> findCardsAfter(String cardAlias, CardType type, String pan, Long afterId, Limit limit);
+}
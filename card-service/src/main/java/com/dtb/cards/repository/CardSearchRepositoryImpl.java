@@ -0,0 +1,110 @@
+package com.dtb.cards.repository;
+
+import com.dtb.cards.enums.CardType;
+import com.dtb.cards.models.Card;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CardSearchRepositoryImpl implements CardSearchRepository {
+    private static final EscapeCharacter ESCAPE = EscapeCharacter.DEFAULT;
+
+    private final EntityManager entityManager;
+
+    public CardSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<Card> findCardByCardAliasOrCardPanOrCardType(String cardAlias, CardType type, String pan, Pageable pageable) {
+        List<Card> content = select(cardAlias, type, pan, pageable, pageable.isPaged() ? pageable.getPageSize() : null);
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(cardAlias, type, pan));
+    }
+
+    @Override
+    public Slice<Card> findCardSliceByCardAliasOrCardPanOrCardType(String cardAlias, CardType type, String pan, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(select(cardAlias, type, pan, pageable, null), pageable, false);
+        }
+        List<Card> cards = select(cardAlias, type, pan, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = cards.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? cards.subList(0, pageable.getPageSize()) : cards, pageable, hasNext);
+    }
+
+    @Override
+    public List<Card> findCardsAfter(String cardAlias, CardType type, String pan, Long afterId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Card> query = cb.createQuery(Card.class);
+        Root<Card> card = query.from(Card.class);
+        query.where(filters(cb, card, cardAlias, type, pan, afterId)).orderBy(cb.asc(card.get("cardId")));
+
+        TypedQuery<Card> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        return typedQuery.getResultList();
+    }
+
+    private List<Card> select(String cardAlias, CardType type, String pan, Pageable pageable, Integer maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Card> query = cb.createQuery(Card.class);
+        Root<Card> card = query.from(Card.class);
+        query.where(filters(cb, card, cardAlias, type, pan, null));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), card, cb));
+        }
+
+        TypedQuery<Card> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+        }
+        if (maxResults != null) {
+            typedQuery.setMaxResults(maxResults);
+        }
+        return typedQuery.getResultList();
+    }
+
+    private long count(String cardAlias, CardType type, String pan) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Card> card = query.from(Card.class);
+        query.select(cb.count(card)).where(filters(cb, card, cardAlias, type, pan, null));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private Predicate[] filters(CriteriaBuilder cb, Root<Card> card, String cardAlias, CardType type, String pan, Long afterId) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(card.get("cardId"), afterId));
+        }
+        if (cardAlias != null) {
+            predicates.add(cb.like(card.get("cardAlias"), contains(cardAlias), ESCAPE.getEscapeCharacter()));
+        }
+        if (type != null) {
+            predicates.add(cb.equal(card.get("cardType"), type));
+        }
+        if (pan != null) {
+            predicates.add(cb.like(card.get("cardPan"), contains(pan), ESCAPE.getEscapeCharacter()));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    /* Wildcards typed by the caller are matched literally, as Spring Data does for LIKE %:param%*/
+    private static String contains(String value) {
+        return "%" + ESCAPE.escape(value) + "%";
+    }
+}
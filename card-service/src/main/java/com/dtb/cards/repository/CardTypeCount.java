@@ -0,0 +1,10 @@
+package com.dtb.cards.repository;
+
+import com.dtb.cards.enums.CardType;
+
+/* Row of CardRepository.countCardsByAccountIdsAndType*/
+public interface CardTypeCount {
+    Long getAccountId();
+    CardType getCardType();
+    long getCards();
+}
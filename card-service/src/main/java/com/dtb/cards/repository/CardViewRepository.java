@@ -0,0 +1,13 @@
+package com.dtb.cards.repository;
+
+import com.dtb.cards.models.CardView;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/* Non-blocking counterpart of the CardRepository lookups, served by R2DBC*/
+public interface CardViewRepository extends R2dbcRepository<CardView, Long> {
+    Flux<CardView> findAllByCardAccountId(Long cardAccountId);
+    Flux<CardView> findAllByCardAccountIdIn(Collection<Long> cardAccountIds);
+}
@@ -1,20 +1,28 @@
 package com.dtb.cards.services;
 
 
+import com.dtb.cards.dtos.BulkCardResponseDto;
 import com.dtb.cards.dtos.CardDto;
 import com.dtb.cards.dtos.CardListResponseDto;
 import com.dtb.cards.dtos.CreateCardDto;
 import com.dtb.cards.enums.CardType;
 
 import java.util.List;
+import java.util.Map;
 
 public interface CardService {
-    CardListResponseDto findCards(String cardAlias, CardType type, String pan,boolean showUnmasked, int page, int size);
+    CardListResponseDto findCards(String cardAlias, CardType type, String pan,boolean showUnmasked, int page, int size, boolean withTotal);
+    CardListResponseDto findCardsAfter(String cardAlias, CardType type, String pan, boolean showUnmasked, String after, int limit);
     CardDto getCardById(Long id, boolean showUnmasked);
 
     List<CardDto> getCardByAccountId(Long id, boolean showUnmasked);
 
+    Map<Long, List<CardDto>> getCardsByAccountIds(List<Long> accountIds, boolean showUnmasked);
+
+    List<Long> findAccountIdsByCardAlias(String cardAlias, Long afterAccountId, int limit);
+
     CardDto createCard(CreateCardDto createCardDto);
+    BulkCardResponseDto createCards(List<CreateCardDto> createCardDtos);
     CardDto updateCardAlias(Long id, String newAlias);
     void deleteCard(Long id);
 }
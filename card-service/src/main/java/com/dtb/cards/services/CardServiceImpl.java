@@ -1,35 +1,76 @@
 package com.dtb.cards.services;
 
+import com.dtb.cards.dtos.BulkCardResponseDto;
+import com.dtb.cards.dtos.BulkCardResultDto;
 import com.dtb.cards.dtos.CardDto;
 import com.dtb.cards.dtos.CardListResponseDto;
 import com.dtb.cards.dtos.CreateCardDto;
+import com.dtb.cards.enums.BulkCardStatus;
+import com.dtb.cards.enums.CardChangeType;
 import com.dtb.cards.enums.CardType;
+import com.dtb.cards.events.CardChangedEvent;
+import com.dtb.cards.exceptions.BulkRequestTooLargeException;
 import com.dtb.cards.exceptions.CardLimitExceededException;
 import com.dtb.cards.exceptions.RecordNotFoundException;
 import com.dtb.cards.models.Card;
+import com.dtb.cards.repository.CardCountRepository;
 import com.dtb.cards.repository.CardRepository;
+import com.dtb.common.repository.RowCountEstimator;
+import com.dtb.common.utils.PageCursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class CardServiceImpl implements CardService {
+    /* Keeps the account id IN list of the limit query well below the 32767 bind parameters Postgres accepts*/
+    static final int MAX_BULK_CARDS = 5000;
+    /* Same bound for the account id IN list of a batch card lookup, shared with ReactiveCardServiceImpl*/
+    static final int MAX_BATCH_ACCOUNT_IDS = 5000;
+    /*Largest page of account ids returned for a card alias, a broad alias can match most accounts*/
+    static final int MAX_ACCOUNT_IDS = 1000;
+    private static final int MAX_CARDS_PER_ACCOUNT = 2;
     private final CardRepository cardRepository;
-    public CardServiceImpl(CardRepository cardRepository) {
+    private final CardCountRepository cardCountRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RowCountEstimator rowCountEstimator;
+    public CardServiceImpl(CardRepository cardRepository, CardCountRepository cardCountRepository,
+                           ApplicationEventPublisher eventPublisher, RowCountEstimator rowCountEstimator) {
         this.cardRepository = cardRepository;
+        this.cardCountRepository = cardCountRepository;
+        this.eventPublisher = eventPublisher;
+        this.rowCountEstimator = rowCountEstimator;
     }
 
     @Override
-    public CardListResponseDto findCards(String cardAlias, CardType type, String pan, boolean showUnmasked, int page, int size) {
+    public CardListResponseDto findCards(String cardAlias, CardType type, String pan, boolean showUnmasked, int page, int size, boolean withTotal) {
         Pageable pageable = PageRequest.of(page,size);
 
+        boolean unfiltered = cardAlias == null && type == null && pan == null;
+        Optional<RowCountEstimator.Estimate> estimate = withTotal && unfiltered ? rowCountEstimator.getEstimate() : Optional.empty();
+        if (!withTotal || estimate.isPresent()) {
+            return findCardSlice(cardAlias, type, pan, showUnmasked, pageable, estimate);
+        }
         Page<Card> cards = cardRepository.findCardByCardAliasOrCardPanOrCardType(cardAlias, type, pan, pageable);
         List<CardDto> cardDtoList = cards.getContent().stream()
                 .map(card ->
@@ -44,6 +85,43 @@ public class CardServiceImpl implements CardService {
 
         return listResponseDto;
     }
+    private CardListResponseDto findCardSlice(String cardAlias, CardType type, String pan, boolean showUnmasked,
+                                              Pageable pageable, Optional<RowCountEstimator.Estimate> estimate) {
+        Slice<Card> cards = cardRepository.findCardSliceByCardAliasOrCardPanOrCardType(cardAlias, type, pan, pageable);
+
+        CardListResponseDto listResponseDto = new CardListResponseDto();
+        listResponseDto.setCards(CardDto.fromEntityDto(cards.getContent(), showUnmasked));
+        listResponseDto.setSize(cards.getSize());
+        listResponseDto.setPage(cards.getNumber());
+        listResponseDto.setHasNext(cards.hasNext());
+        listResponseDto.setTotalItems(-1);
+        listResponseDto.setTotalPages(-1);
+        estimate.ifPresent(e -> {
+            listResponseDto.setTotalItems(e.totalItemsAtLeast(pageable, cards));
+            listResponseDto.setTotalPages(e.totalPagesAtLeast(pageable, cards));
+            listResponseDto.setTotalsApproximate(true);
+            listResponseDto.setTotalsAsOf(e.getAsOf());
+        });
+        return listResponseDto;
+    }
+    @Override
+    public CardListResponseDto findCardsAfter(String cardAlias, CardType type, String pan, boolean showUnmasked, String after, int limit) {
+        int pageSize = Math.max(1, limit);
+        /* One extra row tells whether a next page exists without a count query*/
+        List<Card> cards = cardRepository.findCardsAfter(cardAlias, type, pan, PageCursor.decode(after), Limit.of(pageSize + 1));
+        boolean hasNext = cards.size() > pageSize;
+        List<Card> pageContent = hasNext ? cards.subList(0, pageSize) : cards;
+
+        CardListResponseDto listResponseDto = new CardListResponseDto();
+        listResponseDto.setCards(CardDto.fromEntityDto(pageContent, showUnmasked));
+        listResponseDto.setSize(pageSize);
+        listResponseDto.setTotalItems(-1);
+        listResponseDto.setTotalPages(-1);
+        if (hasNext) {
+            listResponseDto.setNextCursor(PageCursor.encode(pageContent.get(pageSize - 1).getCardId()));
+        }
+        return listResponseDto;
+    }
     @Override
     public CardDto getCardById(Long id, boolean showUnmasked) {
         Card card = cardRepository.findById(id)
@@ -61,52 +139,169 @@ public class CardServiceImpl implements CardService {
         return CardDto.fromEntityDto(cards, showUnmasked);
     }
     @Override
+    public Map<Long, List<CardDto>> getCardsByAccountIds(List<Long> accountIds, boolean showUnmasked) {
+        /* Every requested account gets an entry, accounts without cards map to an empty list*/
+        Map<Long, List<CardDto>> cardsByAccount = new LinkedHashMap<>();
+        if (accountIds == null || accountIds.isEmpty()) {
+            return cardsByAccount;
+        }
+        if (accountIds.size() > MAX_BATCH_ACCOUNT_IDS) {
+            throw new BulkRequestTooLargeException("A batch lookup can cover at most " + MAX_BATCH_ACCOUNT_IDS + " accounts");
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(accountIds);
+        distinctIds.forEach(accountId -> cardsByAccount.put(accountId, new ArrayList<>()));
+
+        cardRepository.findAllByCardAccountIdIn(distinctIds)
+                .forEach(card -> cardsByAccount.get(card.getCardAccountId())
+                        .add(CardDto.fromEntity(card, showUnmasked)));
+        return cardsByAccount;
+    }
+    @Override
+    public List<Long> findAccountIdsByCardAlias(String cardAlias, Long afterAccountId, int limit) {
+        int pageSize = Math.min(Math.max(1, limit), MAX_ACCOUNT_IDS);
+        return cardRepository.findAccountIdsByCardAlias(cardAlias, afterAccountId, Limit.of(pageSize));
+    }
+    @Override
+    @Transactional
     public CardDto createCard(CreateCardDto createCardDto) {
-        /* Check if account already has maximum allowed cards (2)*/
-        long cardCount = cardRepository.countByCardAccountId(createCardDto.getAccountId());
-        if (cardCount >= 2) {
+        /* The account counter row enforces the maximum of 2 cards and the unique (account, type) constraint
+           the one card per type rule, so both hold for concurrent requests*/
+        if (!cardCountRepository.tryAdd(createCardDto.getAccountId(), 1, MAX_CARDS_PER_ACCOUNT)) {
             throw new CardLimitExceededException ("Account can have maximum of 2 cards");
         }
+        log.debug("Creating a {} card for account {}", createCardDto.getType(), createCardDto.getAccountId());
+        Card card = toEntity(createCardDto);
 
-        /* Check if account already has a card of this type*/
-        boolean cardTypeExists = cardRepository.findByCardAccountIdAndCardType(
-                createCardDto.getAccountId(), createCardDto.getType()).isPresent();
-
-        if (cardTypeExists) {
+        /* Save the card, flushed here so a duplicate type surfaces as a constraint violation of this call*/
+        Card savedCard;
+        try {
+            savedCard = cardRepository.saveAndFlush(card);
+        } catch (DataIntegrityViolationException e) {
             throw new CardLimitExceededException(
                     "Account already has a " + createCardDto.getType() + " card. Only one card of each type is allowed.");
         }
-        log.info("Creating a new card");
-        Card card = new Card();
-        card.setCardAccountId(createCardDto.getAccountId());
-        card.setCardCvv(createCardDto.getCvv());
-        card.setCardAlias(createCardDto.getCardAlias());
-        card.setCardPan(createCardDto.getPan());
-        card.setCardType(createCardDto.getType());
-
-        /* Save the card*/
-        Card savedCard = cardRepository.save(card);
+        publishChange(savedCard, CardChangeType.CREATED);
         return CardDto.fromEntity(savedCard, false);
     }
+    @Override
+    @Transactional
+    public BulkCardResponseDto createCards(List<CreateCardDto> createCardDtos) {
+        if (createCardDtos.size() > MAX_BULK_CARDS) {
+            throw new BulkRequestTooLargeException("A bulk request can create at most " + MAX_BULK_CARDS + " cards");
+        }
+        /* Existing cards of every affected account in one grouped query, then updated as items are accepted
+           so the limits also hold between items of the same request*/
+        Set<Long> accountIds = createCardDtos.stream().map(CreateCardDto::getAccountId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, AccountCards> cardsByAccount = new HashMap<>();
+        if (!accountIds.isEmpty()) {
+            cardRepository.countCardsByAccountIdsAndType(accountIds).forEach(row ->
+                    cardsByAccount.computeIfAbsent(row.getAccountId(), id -> new AccountCards()).add(row.getCardType(), row.getCards()));
+        }
+
+        List<BulkCardResultDto> results = new ArrayList<>(createCardDtos.size());
+        List<Card> accepted = new ArrayList<>();
+        List<BulkCardResultDto> acceptedResults = new ArrayList<>();
+        for (int index = 0; index < createCardDtos.size(); index++) {
+            CreateCardDto dto = createCardDtos.get(index);
+            String reason = bulkRejectionReason(dto, cardsByAccount);
+            BulkCardResultDto result = new BulkCardResultDto(index, reason == null ? BulkCardStatus.ACCEPTED : BulkCardStatus.REJECTED, null, reason);
+            results.add(result);
+            if (reason == null) {
+                cardsByAccount.computeIfAbsent(dto.getAccountId(), id -> new AccountCards()).add(dto.getType(), 1);
+                accepted.add(toEntity(dto));
+                acceptedResults.add(result);
+            }
+        }
+
+        /* The counters decide in the end, an account that got new cards since the grouped query is rejected here*/
+        Map<Long, Integer> acceptedByAccount = new HashMap<>();
+        accepted.forEach(card -> acceptedByAccount.merge(card.getCardAccountId(), 1, Integer::sum));
+        Set<Long> reserved = cardCountRepository.tryAddAll(acceptedByAccount, MAX_CARDS_PER_ACCOUNT);
+        List<Card> toSave = new ArrayList<>(accepted.size());
+        List<BulkCardResultDto> savedResults = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            if (reserved.contains(accepted.get(i).getCardAccountId())) {
+                toSave.add(accepted.get(i));
+                savedResults.add(acceptedResults.get(i));
+            } else {
+                acceptedResults.get(i).setStatus(BulkCardStatus.REJECTED);
+                acceptedResults.get(i).setReason("Account can have maximum of 2 cards");
+            }
+        }
+
+        log.info("Bulk creating {} of {} cards", toSave.size(), createCardDtos.size());
+        List<Card> savedCards;
+        try {
+            savedCards = cardRepository.saveAllAndFlush(toSave);
+        } catch (DataIntegrityViolationException e) {
+            throw new CardLimitExceededException("A card of a requested type was created concurrently for one of the accounts, retry the request");
+        }
+        for (int i = 0; i < savedCards.size(); i++) {
+            savedResults.get(i).setCardId(savedCards.get(i).getCardId());
+            publishChange(savedCards.get(i), CardChangeType.CREATED);
+        }
+        return new BulkCardResponseDto(savedCards.size(), createCardDtos.size() - savedCards.size(), results);
+    }
 
     @Override
     @Transactional
     public CardDto updateCardAlias(Long id, String newAlias) {
         Card card = cardRepository.findById(id)
                 .orElseThrow(() -> new RecordNotFoundException("Card not found with id: " + id));
-       log.info("Updating card ===");
+        log.debug("Updating alias of card {}", id);
         card.setCardAlias(newAlias);
         Card updatedCard = cardRepository.save(card);
+        publishChange(updatedCard, CardChangeType.UPDATED);
 
         return CardDto.fromEntity(updatedCard, false);
     }
     @Override
     @Transactional
     public void deleteCard(Long id) {
-        if(!cardRepository.existsById(id)){
-            throw new RecordNotFoundException("Card not found with id: " + id);
+        Card card = cardRepository.findById(id)
+                .orElseThrow(() -> new RecordNotFoundException("Card not found with id: " + id));
+        log.debug("Deleting card {}", id);
+        cardRepository.delete(card);
+        cardCountRepository.remove(card.getCardAccountId());
+        publishChange(card, CardChangeType.DELETED);
+    }
+    /* Same rules as createCard, null when the card can be created*/
+    private String bulkRejectionReason(CreateCardDto dto, Map<Long, AccountCards> cardsByAccount) {
+        if (dto.getAccountId() == null || dto.getType() == null) {
+            return "accountId and type are required";
         }
-        log.info("Deleting card with id : "+ id);
-        cardRepository.deleteById(id);
+        AccountCards existing = cardsByAccount.get(dto.getAccountId());
+        if (existing == null) {
+            return null;
+        }
+        if (existing.count >= MAX_CARDS_PER_ACCOUNT) {
+            return "Account can have maximum of 2 cards";
+        }
+        if (existing.types.contains(dto.getType())) {
+            return "Account already has a " + dto.getType() + " card. Only one card of each type is allowed.";
+        }
+        return null;
+    }
+    private Card toEntity(CreateCardDto createCardDto) {
+        Card card = new Card();
+        card.setCardAccountId(createCardDto.getAccountId());
+        card.setCardCvv(createCardDto.getCvv());
+        card.setCardAlias(createCardDto.getCardAlias());
+        card.setCardPan(createCardDto.getPan());
+        card.setCardType(createCardDto.getType());
+        return card;
+    }
+    private static class AccountCards {
+        private long count;
+        private final Set<CardType> types = EnumSet.noneOf(CardType.class);
+
+        void add(CardType type, long cards) {
+            count += cards;
+            types.add(type);
+        }
+    }
+    private void publishChange(Card card, CardChangeType changeType) {
+        eventPublisher.publishEvent(new CardChangedEvent(card.getCardAccountId(), card.getCardId(), changeType));
     }
 }
@@ -0,0 +1,16 @@
+package com.dtb.cards.services;
+
+import com.dtb.cards.dtos.CardDto;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/* Non-blocking versions of the CardService lookups, same results and errors*/
+public interface ReactiveCardService {
+    Mono<CardDto> getCardById(Long id, boolean showUnmasked);
+
+    Mono<List<CardDto>> getCardByAccountId(Long id, boolean showUnmasked);
+
+    Mono<Map<Long, List<CardDto>>> getCardsByAccountIds(List<Long> accountIds, boolean showUnmasked);
+}
@@ -0,0 +1,57 @@
+package com.dtb.cards.services;
+
+import com.dtb.cards.dtos.CardDto;
+import com.dtb.cards.exceptions.BulkRequestTooLargeException;
+import com.dtb.cards.exceptions.RecordNotFoundException;
+import com.dtb.cards.repository.CardViewRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ReactiveCardServiceImpl implements ReactiveCardService {
+    private final CardViewRepository cardViewRepository;
+    public ReactiveCardServiceImpl(CardViewRepository cardViewRepository) {
+        this.cardViewRepository = cardViewRepository;
+    }
+
+    @Override
+    public Mono<CardDto> getCardById(Long id, boolean showUnmasked) {
+        return cardViewRepository.findById(id)
+                .map(card -> CardDto.fromView(card, showUnmasked))
+                .switchIfEmpty(Mono.error(() -> new RecordNotFoundException("Card not found with id: " + id)));
+    }
+    @Override
+    public Mono<List<CardDto>> getCardByAccountId(Long id, boolean showUnmasked) {
+        return cardViewRepository.findAllByCardAccountId(id)
+                .map(card -> CardDto.fromView(card, showUnmasked))
+                .collectList()
+                .filter(cards -> !cards.isEmpty())
+                .switchIfEmpty(Mono.error(() -> new RecordNotFoundException("No cards found for customer with id: " + id)));
+    }
+    @Override
+    public Mono<Map<Long, List<CardDto>>> getCardsByAccountIds(List<Long> accountIds, boolean showUnmasked) {
+        /* Every requested account gets an entry, accounts without cards map to an empty list*/
+        if (accountIds == null || accountIds.isEmpty()) {
+            return Mono.just(new LinkedHashMap<>());
+        }
+        if (accountIds.size() > CardServiceImpl.MAX_BATCH_ACCOUNT_IDS) {
+            return Mono.error(new BulkRequestTooLargeException(
+                    "A batch lookup can cover at most " + CardServiceImpl.MAX_BATCH_ACCOUNT_IDS + " accounts"));
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(accountIds);
+        return cardViewRepository.findAllByCardAccountIdIn(distinctIds)
+                .collect(() -> {
+                    Map<Long, List<CardDto>> cardsByAccount = new LinkedHashMap<>();
+                    distinctIds.forEach(accountId -> cardsByAccount.put(accountId, new ArrayList<>()));
+                    return cardsByAccount;
+                }, (cardsByAccount, card) -> cardsByAccount.get(card.getCardAccountId())
+                        .add(CardDto.fromView(card, showUnmasked)));
+    }
+}
@@ -0,0 +1,12 @@
+-- Baseline of the schema previously generated by Hibernate (ddl-auto=update).
+-- IF NOT EXISTS keeps it a no-op on databases that already have the table.
+CREATE TABLE IF NOT EXISTS cards (
+    card_id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    card_alias      VARCHAR(255),
+    card_account_id BIGINT,
+    card_type       VARCHAR(255),
+    card_pan        VARCHAR(255),
+    card_cvv        VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS idx_cards_card_account_id ON cards (card_account_id);
@@ -0,0 +1,12 @@
+-- Database side of the card limits: one card per type through the unique constraint and at most
+-- two cards per account through the counter row, which every create and delete updates in the
+-- same transaction as the card. Adding the constraint fails if duplicates already exist, remove them first.
+CREATE TABLE IF NOT EXISTS card_account_counts (
+    account_id BIGINT PRIMARY KEY,
+    card_count INT    NOT NULL
+);
+
+INSERT INTO card_account_counts (account_id, card_count)
+SELECT card_account_id, COUNT(*) FROM cards WHERE card_account_id IS NOT NULL GROUP BY card_account_id;
+
+ALTER TABLE cards ADD CONSTRAINT uk_cards_account_type UNIQUE (card_account_id, card_type);
@@ -0,0 +1,3 @@
+-- H2 has no pg_trgm, plain indexes keep the migration history identical to Postgres
+CREATE INDEX IF NOT EXISTS idx_cards_card_alias ON cards (card_alias);
+CREATE INDEX IF NOT EXISTS idx_cards_card_pan ON cards (card_pan);
@@ -0,0 +1,15 @@
+-- Trigram GIN indexes so LIKE '%x%' and LIKE 'x%' searches on alias and PAN are index-assisted.
+-- Patterns shorter than 3 characters produce no trigrams and still scan.
+-- On a large existing table build these by hand with CREATE INDEX CONCURRENTLY before deploying,
+-- the statements below are then no-ops.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- The B-tree alias index from the Hibernate schema cannot serve substring searches
+DROP INDEX IF EXISTS idx_cards_card_alias;
+
+-- GET /api/cards?cardAlias= and ?pan= (case-sensitive LIKE)
+CREATE INDEX IF NOT EXISTS idx_cards_card_alias_trgm ON cards USING gin (card_alias gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_cards_card_pan_trgm ON cards USING gin (card_pan gin_trgm_ops);
+
+-- GET /api/cards/accounts?cardAlias= (case-insensitive LIKE on LOWER(card_alias))
+CREATE INDEX IF NOT EXISTS idx_cards_card_alias_lower_trgm ON cards USING gin (lower(card_alias) gin_trgm_ops);
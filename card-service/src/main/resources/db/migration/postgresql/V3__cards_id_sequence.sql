@@ -0,0 +1,5 @@
+-- Pooled id sequence replacing IDENTITY so Hibernate can batch inserts. Hibernate reserves
+-- allocationSize (50) ids per nextval, the increment must match. The first value handed out
+-- is just above the ids already in the table.
+CREATE SEQUENCE IF NOT EXISTS cards_seq INCREMENT BY 50;
+SELECT setval('cards_seq', (SELECT COALESCE(MAX(card_id), 0) FROM cards) + 50, false);
@@ -1,8 +1,11 @@
 package com.dtb.cards.controllers;
 
+import com.dtb.cards.dtos.BulkCardResponseDto;
+import com.dtb.cards.dtos.BulkCardResultDto;
 import com.dtb.cards.dtos.CardDto;
 import com.dtb.cards.dtos.CardListResponseDto;
 import com.dtb.cards.dtos.CreateCardDto;
+import com.dtb.cards.enums.BulkCardStatus;
 import com.dtb.cards.enums.CardType;
 import com.dtb.cards.services.CardService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -18,11 +21,14 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
@@ -55,7 +61,7 @@ class CardControllerTest {
     @Test
     void getCards_withAllParameters_returnsFilteredCards() throws Exception {
         CardListResponseDto responseDto = createSampleCardListResponse();
-        when(cardService.findCards(eq("Alias1"), eq(CardType.VIRTUAL), eq("1234"), eq(true), eq(0), eq(10)))
+        when(cardService.findCards(eq("Alias1"), eq(CardType.VIRTUAL), eq("1234"), eq(true), eq(0), eq(10), eq(true)))
                 .thenReturn(responseDto);
 
         // Act & Assert
@@ -71,13 +77,13 @@ class CardControllerTest {
                 .andExpect(jsonPath("$.cards[0].cardAlias", is("Alias1")))
                 .andExpect(jsonPath("$.totalItems", is(2)));
 
-        verify(cardService).findCards("Alias1", CardType.VIRTUAL, "1234", true, 0, 10);
+        verify(cardService).findCards("Alias1", CardType.VIRTUAL, "1234", true, 0, 10, true);
     }
 
     @Test
     void getCards_withDefaultParameters_returnsAllCards() throws Exception {
         CardListResponseDto responseDto = createSampleCardListResponse();
-        when(cardService.findCards(isNull(), isNull(), isNull(), eq(false), eq(0), eq(10)))
+        when(cardService.findCards(isNull(), isNull(), isNull(), eq(false), eq(0), eq(10), eq(true)))
                 .thenReturn(responseDto);
 
         // Act & Assert
@@ -86,7 +92,41 @@ class CardControllerTest {
                 .andExpect(jsonPath("$.cards", hasSize(2)))
                 .andExpect(jsonPath("$.page", is(0)));
 
-        verify(cardService).findCards(null, null, null, false, 0, 10);
+        verify(cardService).findCards(null, null, null, false, 0, 10, true);
+    }
+
+    @Test
+    void getCards_withCursor_usesKeysetPagination() throws Exception {
+        CardListResponseDto responseDto = createSampleCardListResponse();
+        responseDto.setNextCursor("Mg");
+        when(cardService.findCardsAfter(isNull(), isNull(), isNull(), eq(false), eq("MQ"), eq(2)))
+                .thenReturn(responseDto);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/cards")
+                        .param("after", "MQ")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor", is("Mg")));
+
+        verify(cardService, never()).findCards(any(), any(), any(), anyBoolean(), anyInt(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void getCards_withTotalFalse_passesFlagToService() throws Exception {
+        CardListResponseDto responseDto = createSampleCardListResponse();
+        responseDto.setTotalItems(-1);
+        responseDto.setHasNext(true);
+        when(cardService.findCards(isNull(), isNull(), isNull(), eq(false), eq(0), eq(10), eq(false)))
+                .thenReturn(responseDto);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/cards")
+                        .param("withTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.totalItems", is(-1)));
     }
 
     @Test
@@ -152,6 +192,51 @@ class CardControllerTest {
         verify(cardService).getCardByAccountId(100L, true);
     }
 
+    @Test
+    void getAccountIdsByCardAlias_returnsMatchingAccountIds() throws Exception {
+        when(cardService.findAccountIdsByCardAlias("Alias", 0L, 1000)).thenReturn(Arrays.asList(100L, 200L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/cards/accounts")
+                        .param("cardAlias", "Alias"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0]", is(100)));
+
+        verify(cardService).findAccountIdsByCardAlias("Alias", 0L, 1000);
+    }
+
+    @Test
+    void getAccountIdsByCardAlias_pagesAfterTheGivenAccount() throws Exception {
+        when(cardService.findAccountIdsByCardAlias("Alias", 100L, 50)).thenReturn(List.of(200L));
+
+        mockMvc.perform(get("/api/cards/accounts")
+                        .param("cardAlias", "Alias")
+                        .param("after", "100")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0]", is(200)));
+    }
+
+    @Test
+    void getCardsByAccountIds_returnsCardsGroupedByAccount() throws Exception {
+        Map<Long, List<CardDto>> cards = new LinkedHashMap<>();
+        cards.put(100L, Arrays.asList(createSampleCardDto(), createSampleCardDto()));
+        cards.put(200L, new ArrayList<>());
+        when(cardService.getCardsByAccountIds(eq(Arrays.asList(100L, 200L)), eq(false))).thenReturn(cards);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/cards/accounts/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Arrays.asList(100L, 200L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.100", hasSize(2)))
+                .andExpect(jsonPath("$.200", hasSize(0)));
+
+        verify(cardService).getCardsByAccountIds(Arrays.asList(100L, 200L), false);
+    }
+
     @Test
     void createCard_withValidData_returnsCreatedCard() throws Exception {
         CreateCardDto createDto = new CreateCardDto();
@@ -178,6 +263,35 @@ class CardControllerTest {
         verify(cardService).createCard(any(CreateCardDto.class));
     }
 
+    @Test
+    void createCards_returnsPerItemResults() throws Exception {
+        CreateCardDto createDto = new CreateCardDto();
+        createDto.setCardAlias("New Card");
+        createDto.setType(CardType.VIRTUAL);
+        createDto.setPan("1234567890123456");
+        createDto.setCvv("123");
+        createDto.setAccountId(200L);
+
+        BulkCardResponseDto response = new BulkCardResponseDto(1, 1, List.of(
+                new BulkCardResultDto(0, BulkCardStatus.ACCEPTED, 7L, null),
+                new BulkCardResultDto(1, BulkCardStatus.REJECTED, null, "Account can have maximum of 2 cards")));
+        when(cardService.createCards(anyList())).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/cards/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(createDto, createDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.results", hasSize(2)))
+                .andExpect(jsonPath("$.results[0].cardId", is(7)))
+                .andExpect(jsonPath("$.results[0].reason").doesNotExist())
+                .andExpect(jsonPath("$.results[1].status", is("REJECTED")));
+
+        verify(cardService).createCards(anyList());
+    }
+
     @Test
     void updateCardAlias_withValidAlias_returnsUpdatedCard() throws Exception {
         String newAlias = "Updated Alias";
@@ -216,7 +330,7 @@ class CardControllerTest {
                         .param("type", "INVALID_TYPE"))
                 .andExpect(status().isBadRequest());
 
-        verify(cardService, never()).findCards(any(), any(), any(), anyBoolean(), anyInt(), anyInt());
+        verify(cardService, never()).findCards(any(), any(), any(), anyBoolean(), anyInt(), anyInt(), anyBoolean());
     }
 
 
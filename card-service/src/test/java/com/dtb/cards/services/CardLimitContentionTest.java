@@ -0,0 +1,130 @@
+package com.dtb.cards.services;
+
+import com.dtb.cards.dtos.CreateCardDto;
+import com.dtb.cards.enums.CardType;
+import com.dtb.cards.exceptions.CardLimitExceededException;
+import com.dtb.cards.repository.CardCountRepository;
+import com.dtb.cards.repository.CardRepository;
+import com.dtb.common.config.RowCountEstimatorAutoConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/* Concurrent creates against a real database, the limits must hold without any locking in the service*/
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-limits;LOCK_TIMEOUT=10000",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CardServiceImpl.class, CardCountRepository.class, RowCountEstimatorAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CardLimitContentionTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private CardService cardService;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        cardRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM card_account_counts");
+    }
+
+    @Test
+    void createCard_concurrentRequestsForDifferentTypes_createsAtMostTwoCards() throws Exception {
+        List<Boolean> created = createConcurrently(1L, i -> i % 2 == 0 ? CardType.PHYSICAL : CardType.VIRTUAL);
+
+        assertEquals(2, created.stream().filter(Boolean::booleanValue).count());
+        assertEquals(2, cardRepository.countByCardAccountId(1L));
+        assertEquals(2, cardCount(1L));
+    }
+
+    @Test
+    void createCard_concurrentRequestsForSameType_createsOneCard() throws Exception {
+        List<Boolean> created = createConcurrently(2L, i -> CardType.PHYSICAL);
+
+        assertEquals(1, created.stream().filter(Boolean::booleanValue).count());
+        assertEquals(1, cardRepository.countByCardAccountId(2L));
+        assertEquals(1, cardCount(2L));
+    }
+
+    @Test
+    void deleteCard_freesTheSlotForANewCard() {
+        cardService.createCard(createCardDto(3L, CardType.PHYSICAL));
+        Long virtualCardId = cardService.createCard(createCardDto(3L, CardType.VIRTUAL)).getId();
+        assertThrows(CardLimitExceededException.class, () -> cardService.createCard(createCardDto(3L, CardType.VIRTUAL)));
+
+        cardService.deleteCard(virtualCardId);
+        cardService.createCard(createCardDto(3L, CardType.VIRTUAL));
+
+        assertEquals(2, cardCount(3L));
+    }
+
+    /* Starts all creates at once, true for the ones that created a card*/
+    private List<Boolean> createConcurrently(Long accountId, IntFunction<CardType> typeOf) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                CreateCardDto dto = createCardDto(accountId, typeOf.apply(i));
+                Callable<Boolean> create = () -> {
+                    start.await();
+                    try {
+                        cardService.createCard(dto);
+                        return true;
+                    } catch (CardLimitExceededException e) {
+                        return false;
+                    }
+                };
+                futures.add(executor.submit(create));
+            }
+            start.countDown();
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int cardCount(Long accountId) {
+        return jdbcTemplate.queryForObject("SELECT card_count FROM card_account_counts WHERE account_id = ?", Integer.class, accountId);
+    }
+
+    private static CreateCardDto createCardDto(Long accountId, CardType type) {
+        CreateCardDto dto = new CreateCardDto();
+        dto.setAccountId(accountId);
+        dto.setType(type);
+        dto.setCardAlias("Contended Card");
+        dto.setPan("4000000000000002");
+        dto.setCvv("123");
+        return dto;
+    }
+}
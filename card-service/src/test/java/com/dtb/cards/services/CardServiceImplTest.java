@@ -1,29 +1,48 @@
 
 package com.dtb.cards.services;
 
+import com.dtb.cards.dtos.BulkCardResponseDto;
 import com.dtb.cards.dtos.CardDto;
 import com.dtb.cards.dtos.CardListResponseDto;
 import com.dtb.cards.dtos.CreateCardDto;
+import com.dtb.cards.enums.BulkCardStatus;
+import com.dtb.cards.enums.CardChangeType;
 import com.dtb.cards.enums.CardType;
+import com.dtb.cards.events.CardChangedEvent;
+import com.dtb.cards.exceptions.BulkRequestTooLargeException;
 import com.dtb.cards.exceptions.CardLimitExceededException;
+import com.dtb.common.exceptions.InvalidCursorException;
 import com.dtb.cards.exceptions.RecordNotFoundException;
 import com.dtb.cards.models.Card;
+import com.dtb.cards.repository.CardCountRepository;
 import com.dtb.cards.repository.CardRepository;
+import com.dtb.cards.repository.CardTypeCount;
+import com.dtb.common.repository.RowCountEstimator;
+import com.dtb.common.utils.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,6 +52,12 @@ import static org.mockito.Mockito.*;
 class CardServiceImplTest {
     @Mock
     private CardRepository cardRepository;
+    @Mock
+    private CardCountRepository cardCountRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private RowCountEstimator rowCountEstimator;
     @InjectMocks
     private CardServiceImpl cardService;
 
@@ -84,7 +109,7 @@ class CardServiceImplTest {
                 .thenReturn(cardPage);
 
         // Act
-        CardListResponseDto result = cardService.findCards(cardAlias, type, pan, showUnmasked, page, size);
+        CardListResponseDto result = cardService.findCards(cardAlias, type, pan, showUnmasked, page, size, true);
 
         // Assert
         assertNotNull(result);
@@ -95,6 +120,90 @@ class CardServiceImplTest {
         assertEquals(1, result.getTotalItems());
 
         verify(cardRepository).findCardByCardAliasOrCardPanOrCardType(cardAlias, type, pan, PageRequest.of(page, size));
+        verifyNoInteractions(rowCountEstimator);
+    }
+
+    @Test
+    void findCards_withoutTotal_skipsCountQuery() {
+        when(cardRepository.findCardSliceByCardAliasOrCardPanOrCardType(eq("Test"), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(card1), PageRequest.of(0, 1), true));
+
+        // Act
+        CardListResponseDto result = cardService.findCards("Test", null, null, false, 0, 1, false);
+
+        // Assert
+        assertEquals(1, result.getCards().size());
+        assertEquals(-1, result.getTotalItems());
+        assertTrue(result.getHasNext());
+        assertNull(result.getTotalsApproximate());
+        verify(cardRepository, never()).findCardByCardAliasOrCardPanOrCardType(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void findCards_unfilteredWithEstimate_returnsApproximateTotals() {
+        LocalDateTime asOf = LocalDateTime.now();
+        when(rowCountEstimator.getEstimate()).thenReturn(Optional.of(new RowCountEstimator.Estimate(25, asOf)));
+        when(cardRepository.findCardSliceByCardAliasOrCardPanOrCardType(isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(card1, card2), PageRequest.of(0, 10), false));
+
+        // Act
+        CardListResponseDto result = cardService.findCards(null, null, null, false, 0, 10, true);
+
+        // Assert
+        assertEquals(25, result.getTotalItems());
+        assertEquals(3, result.getTotalPages());
+        assertTrue(result.getTotalsApproximate());
+        assertEquals(asOf, result.getTotalsAsOf());
+        verify(cardRepository, never()).findCardByCardAliasOrCardPanOrCardType(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void findCards_unfilteredWithoutEstimate_fallsBackToExactCount() {
+        when(rowCountEstimator.getEstimate()).thenReturn(Optional.empty());
+        when(cardRepository.findCardByCardAliasOrCardPanOrCardType(isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(card1), PageRequest.of(0, 10), 1));
+
+        // Act
+        CardListResponseDto result = cardService.findCards(null, null, null, false, 0, 10, true);
+
+        // Assert
+        assertEquals(1, result.getTotalItems());
+        assertNull(result.getTotalsApproximate());
+    }
+
+    @Test
+    void findCardsAfter_moreRowsThanLimit_returnsNextCursor() {
+        when(cardRepository.findCardsAfter(isNull(), isNull(), isNull(), eq(0L), eq(Limit.of(2))))
+                .thenReturn(Arrays.asList(card1, card2));
+
+        // Act
+        CardListResponseDto result = cardService.findCardsAfter(null, null, null, false, null, 1);
+
+        // Assert
+        assertEquals(1, result.getCards().size());
+        assertEquals(card1.getCardId(), result.getCards().get(0).getId());
+        assertEquals(-1, result.getTotalItems());
+        assertEquals(PageCursor.encode(card1.getCardId()), result.getNextCursor());
+    }
+
+    @Test
+    void findCardsAfter_lastPage_hasNoNextCursor() {
+        when(cardRepository.findCardsAfter(isNull(), isNull(), isNull(), eq(1L), eq(Limit.of(11))))
+                .thenReturn(List.of(card2));
+
+        // Act
+        CardListResponseDto result = cardService.findCardsAfter(null, null, null, false, PageCursor.encode(1L), 10);
+
+        // Assert
+        assertEquals(1, result.getCards().size());
+        assertNull(result.getNextCursor());
+        verify(cardRepository, never()).findCardByCardAliasOrCardPanOrCardType(any(), any(), any(), any());
+    }
+
+    @Test
+    void findCardsAfter_invalidCursor_throwsException() {
+        assertThrows(InvalidCursorException.class,
+                () -> cardService.findCardsAfter(null, null, null, false, "not-a-cursor", 10));
     }
 
     @Test
@@ -157,12 +266,70 @@ class CardServiceImplTest {
         verify(cardRepository).findAllByCardAccountId(accountId);
     }
 
+    @Test
+    void getCardsByAccountIds_groupsCardsByAccount() {
+        Card otherAccountCard = new Card();
+        otherAccountCard.setCardId(3L);
+        otherAccountCard.setCardAccountId(200L);
+        otherAccountCard.setCardAlias("Other Card");
+        otherAccountCard.setCardPan("1111222233334444");
+        otherAccountCard.setCardType(CardType.VIRTUAL);
+        when(cardRepository.findAllByCardAccountIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(card1, card2, otherAccountCard));
+
+        // Act
+        Map<Long, List<CardDto>> result = cardService.getCardsByAccountIds(Arrays.asList(100L, 200L, 300L, 100L), false);
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals(2, result.get(100L).size());
+        assertEquals(1, result.get(200L).size());
+        assertTrue(result.get(300L).isEmpty());
+        assertEquals("****-****-****-4444", result.get(200L).get(0).getPan());
+
+        verify(cardRepository).findAllByCardAccountIdIn(Set.of(100L, 200L, 300L));
+    }
+
+    @Test
+    void getCardsByAccountIds_emptyRequest_skipsQuery() {
+        Map<Long, List<CardDto>> result = cardService.getCardsByAccountIds(new ArrayList<>(), false);
+
+        assertTrue(result.isEmpty());
+        verify(cardRepository, never()).findAllByCardAccountIdIn(anyCollection());
+    }
+
+    @Test
+    void getCardsByAccountIds_tooManyAccounts_rejectedBeforeQuery() {
+        List<Long> accountIds = LongStream.rangeClosed(1, CardServiceImpl.MAX_BATCH_ACCOUNT_IDS + 1).boxed().toList();
+
+        assertThrows(BulkRequestTooLargeException.class, () -> cardService.getCardsByAccountIds(accountIds, false));
+        verify(cardRepository, never()).findAllByCardAccountIdIn(anyCollection());
+    }
+
+    @Test
+    void findAccountIdsByCardAlias_returnsMatchingAccounts() {
+        when(cardRepository.findAccountIdsByCardAlias("test", 0L, Limit.of(1000))).thenReturn(Arrays.asList(100L, 200L));
+
+        // Act
+        List<Long> result = cardService.findAccountIdsByCardAlias("test", 0L, 1000);
+
+        // Assert
+        assertEquals(Arrays.asList(100L, 200L), result);
+        verify(cardRepository).findAccountIdsByCardAlias("test", 0L, Limit.of(1000));
+    }
+
+    @Test
+    void findAccountIdsByCardAlias_capsThePageSize() {
+        when(cardRepository.findAccountIdsByCardAlias("test", 100L, Limit.of(CardServiceImpl.MAX_ACCOUNT_IDS)))
+                .thenReturn(List.of(200L));
+
+        assertEquals(List.of(200L), cardService.findAccountIdsByCardAlias("test", 100L, 1_000_000));
+    }
+
     @Test
     void createCard_validCard_returnsCreatedCard() {
         // Arrange
-        when(cardRepository.countByCardAccountId(createCardDto.getAccountId())).thenReturn(0L);
-        when(cardRepository.findByCardAccountIdAndCardType(
-                createCardDto.getAccountId(), createCardDto.getType())).thenReturn(Optional.empty());
+        when(cardCountRepository.tryAdd(createCardDto.getAccountId(), 1, 2)).thenReturn(true);
 
         Card savedCard = new Card();
         savedCard.setCardId(3L);
@@ -172,7 +339,7 @@ class CardServiceImplTest {
         savedCard.setCardCvv(createCardDto.getCvv());
         savedCard.setCardType(createCardDto.getType());
 
-        when(cardRepository.save(any(Card.class))).thenReturn(savedCard);
+        when(cardRepository.saveAndFlush(any(Card.class))).thenReturn(savedCard);
 
         // Act
         CardDto result = cardService.createCard(createCardDto);
@@ -183,36 +350,117 @@ class CardServiceImplTest {
         assertEquals(savedCard.getCardAlias(), result.getCardAlias());
         assertEquals(savedCard.getCardType(), result.getType());
 
-        verify(cardRepository).countByCardAccountId(createCardDto.getAccountId());
-        verify(cardRepository).findByCardAccountIdAndCardType(createCardDto.getAccountId(), createCardDto.getType());
-        verify(cardRepository).save(any(Card.class));
+        verify(cardCountRepository).tryAdd(createCardDto.getAccountId(), 1, 2);
+        verify(cardRepository).saveAndFlush(any(Card.class));
+        verify(eventPublisher).publishEvent(new CardChangedEvent(100L, 3L, CardChangeType.CREATED));
+    }
+
+    @Test
+    void createCards_appliesLimitsAcrossExistingAndBatchCards() {
+        // Account 100 already has a PHYSICAL card, account 200 already has two cards
+        when(cardRepository.countCardsByAccountIdsAndType(Set.of(100L, 200L, 300L))).thenReturn(List.of(
+                cardTypeCount(100L, CardType.PHYSICAL, 1),
+                cardTypeCount(200L, CardType.PHYSICAL, 1),
+                cardTypeCount(200L, CardType.VIRTUAL, 1)));
+        when(cardCountRepository.tryAddAll(Map.of(100L, 1, 300L, 1), 2)).thenReturn(Set.of(100L, 300L));
+        when(cardRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Card> cards = invocation.getArgument(0);
+            for (int i = 0; i < cards.size(); i++) {
+                cards.get(i).setCardId(10L + i);
+            }
+            return cards;
+        });
+
+        List<CreateCardDto> request = List.of(
+                bulkItem(100L, CardType.PHYSICAL),
+                bulkItem(100L, CardType.VIRTUAL),
+                bulkItem(200L, CardType.VIRTUAL),
+                bulkItem(300L, CardType.VIRTUAL),
+                bulkItem(300L, CardType.VIRTUAL),
+                bulkItem(null, CardType.VIRTUAL));
+
+        // Act
+        BulkCardResponseDto result = cardService.createCards(request);
+
+        // Assert
+        assertEquals(2, result.getAccepted());
+        assertEquals(4, result.getRejected());
+        assertEquals(6, result.getResults().size());
+        assertEquals(BulkCardStatus.REJECTED, result.getResults().get(0).getStatus());
+        assertEquals("Account already has a PHYSICAL card. Only one card of each type is allowed.", result.getResults().get(0).getReason());
+        assertEquals(BulkCardStatus.ACCEPTED, result.getResults().get(1).getStatus());
+        assertEquals(10L, result.getResults().get(1).getCardId());
+        assertEquals("Account can have maximum of 2 cards", result.getResults().get(2).getReason());
+        assertEquals(BulkCardStatus.ACCEPTED, result.getResults().get(3).getStatus());
+        assertEquals(11L, result.getResults().get(3).getCardId());
+        assertEquals(BulkCardStatus.REJECTED, result.getResults().get(4).getStatus());
+        assertEquals(BulkCardStatus.REJECTED, result.getResults().get(5).getStatus());
+
+        verify(cardRepository).saveAllAndFlush(argThat(cards -> ((List<Card>) cards).size() == 2));
+        verify(cardRepository, never()).countByCardAccountId(anyLong());
+        verify(eventPublisher).publishEvent(new CardChangedEvent(100L, 10L, CardChangeType.CREATED));
+        verify(eventPublisher).publishEvent(new CardChangedEvent(300L, 11L, CardChangeType.CREATED));
+    }
+
+    @Test
+    void createCards_counterRejectsAccount_rejectsItsCards() {
+        // Account 100 got a card from another request after the grouped query
+        when(cardRepository.countCardsByAccountIdsAndType(Set.of(100L, 200L))).thenReturn(List.of());
+        when(cardCountRepository.tryAddAll(Map.of(100L, 2, 200L, 1), 2)).thenReturn(Set.of(200L));
+        when(cardRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Card> cards = invocation.getArgument(0);
+            cards.get(0).setCardId(20L);
+            return cards;
+        });
+
+        // Act
+        BulkCardResponseDto result = cardService.createCards(List.of(
+                bulkItem(100L, CardType.PHYSICAL),
+                bulkItem(100L, CardType.VIRTUAL),
+                bulkItem(200L, CardType.PHYSICAL)));
+
+        // Assert
+        assertEquals(1, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertEquals("Account can have maximum of 2 cards", result.getResults().get(0).getReason());
+        assertEquals("Account can have maximum of 2 cards", result.getResults().get(1).getReason());
+        assertEquals(20L, result.getResults().get(2).getCardId());
+        verify(eventPublisher).publishEvent(new CardChangedEvent(200L, 20L, CardChangeType.CREATED));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void createCards_tooManyItems_throwsException() {
+        List<CreateCardDto> request = Collections.nCopies(CardServiceImpl.MAX_BULK_CARDS + 1, createCardDto);
+
+        assertThrows(BulkRequestTooLargeException.class, () -> cardService.createCards(request));
+
+        verifyNoInteractions(cardRepository, cardCountRepository);
     }
 
     @Test
     void createCard_exceedMaxCards_throwsException() {
 
-        when(cardRepository.countByCardAccountId(createCardDto.getAccountId())).thenReturn(2L);
+        when(cardCountRepository.tryAdd(createCardDto.getAccountId(), 1, 2)).thenReturn(false);
 
         // Act & Assert
-        assertThrows(CardLimitExceededException.class, () -> cardService.createCard(createCardDto));
+        CardLimitExceededException exception = assertThrows(CardLimitExceededException.class, () -> cardService.createCard(createCardDto));
 
-        verify(cardRepository).countByCardAccountId(createCardDto.getAccountId());
-        verify(cardRepository, never()).findByCardAccountIdAndCardType(anyLong(), any(CardType.class));
-        verify(cardRepository, never()).save(any(Card.class));
+        assertEquals("Account can have maximum of 2 cards", exception.getMessage());
+        verify(cardRepository, never()).saveAndFlush(any(Card.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
     void createCard_duplicateCardType_throwsException() {
-        when(cardRepository.countByCardAccountId(createCardDto.getAccountId())).thenReturn(1L);
-        when(cardRepository.findByCardAccountIdAndCardType(
-                createCardDto.getAccountId(), createCardDto.getType())).thenReturn(Optional.of(card1));
+        when(cardCountRepository.tryAdd(createCardDto.getAccountId(), 1, 2)).thenReturn(true);
+        when(cardRepository.saveAndFlush(any(Card.class))).thenThrow(new DataIntegrityViolationException("uk_cards_account_type"));
 
         // Act & Assert
-        assertThrows(CardLimitExceededException.class, () -> cardService.createCard(createCardDto));
+        CardLimitExceededException exception = assertThrows(CardLimitExceededException.class, () -> cardService.createCard(createCardDto));
 
-        verify(cardRepository).countByCardAccountId(createCardDto.getAccountId());
-        verify(cardRepository).findByCardAccountIdAndCardType(createCardDto.getAccountId(), createCardDto.getType());
-        verify(cardRepository, never()).save(any(Card.class));
+        assertEquals("Account already has a PHYSICAL card. Only one card of each type is allowed.", exception.getMessage());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -243,6 +491,7 @@ class CardServiceImplTest {
 
         verify(cardRepository).findById(cardId);
         verify(cardRepository).save(any(Card.class));
+        verify(eventPublisher).publishEvent(new CardChangedEvent(100L, cardId, CardChangeType.UPDATED));
     }
 
     @Test
@@ -262,26 +511,58 @@ class CardServiceImplTest {
     @Test
     void deleteCard_existingCard_deletesCard() {
         Long cardId = 1L;
-        when(cardRepository.existsById(cardId)).thenReturn(true);
-        doNothing().when(cardRepository).deleteById(cardId);
+        when(cardRepository.findById(cardId)).thenReturn(Optional.of(card1));
+        doNothing().when(cardRepository).delete(card1);
 
         // Act
         cardService.deleteCard(cardId);
 
         // Assert
-        verify(cardRepository).existsById(cardId);
-        verify(cardRepository).deleteById(cardId);
+        verify(cardRepository).findById(cardId);
+        verify(cardRepository).delete(card1);
+        verify(cardCountRepository).remove(100L);
+        verify(eventPublisher).publishEvent(new CardChangedEvent(100L, cardId, CardChangeType.DELETED));
     }
 
     @Test
     void deleteCard_nonExistingCard_throwsException() {
         Long cardId = 999L;
-        when(cardRepository.existsById(cardId)).thenReturn(false);
+        when(cardRepository.findById(cardId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(RecordNotFoundException.class, () -> cardService.deleteCard(cardId));
 
-        verify(cardRepository).existsById(cardId);
-        verify(cardRepository, never()).deleteById(anyLong());
+        verify(cardRepository).findById(cardId);
+        verify(cardRepository, never()).delete(any(Card.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    private static CreateCardDto bulkItem(Long accountId, CardType type) {
+        CreateCardDto dto = new CreateCardDto();
+        dto.setAccountId(accountId);
+        dto.setType(type);
+        dto.setCardAlias("Bulk Card");
+        dto.setPan("4444333322221111");
+        dto.setCvv("321");
+        return dto;
+    }
+
+    private static CardTypeCount cardTypeCount(Long accountId, CardType cardType, long cards) {
+        return new CardTypeCount() {
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+
+            @Override
+            public CardType getCardType() {
+                return cardType;
+            }
+
+            @Override
+            public long getCards() {
+                return cards;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package com.dtb.cards.services;
+
+import com.dtb.cards.dtos.CardDto;
+import com.dtb.cards.enums.CardType;
+import com.dtb.cards.exceptions.BulkRequestTooLargeException;
+import com.dtb.cards.exceptions.RecordNotFoundException;
+import com.dtb.cards.models.CardView;
+import com.dtb.cards.repository.CardViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCardServiceImplTest {
+    @Mock
+    private CardViewRepository cardViewRepository;
+    @InjectMocks
+    private ReactiveCardServiceImpl reactiveCardService;
+
+    private CardView card1;
+    private CardView card2;
+
+    @BeforeEach
+    void setUp() {
+        card1 = card(1L, 100L, "1234567890123456", CardType.PHYSICAL);
+        card2 = card(2L, 100L, "9876543210987654", CardType.VIRTUAL);
+    }
+
+    private static CardView card(Long id, Long accountId, String pan, CardType type) {
+        CardView card = new CardView();
+        card.setCardId(id);
+        card.setCardAccountId(accountId);
+        card.setCardAlias("Test Card " + id);
+        card.setCardPan(pan);
+        card.setCardCvv("123");
+        card.setCardType(type);
+        return card;
+    }
+
+    @Test
+    void getCardById_existingCard_returnsMaskedCard() {
+        when(cardViewRepository.findById(1L)).thenReturn(Mono.just(card1));
+
+        CardDto result = reactiveCardService.getCardById(1L, false).block();
+
+        assertNotNull(result);
+        assertEquals(1L, result.getId());
+        assertEquals(100L, result.getAccountId());
+        assertEquals("****-****-****-3456", result.getPan());
+        assertEquals("***", result.getCvv());
+    }
+
+    @Test
+    void getCardById_nonExistingCard_throwsException() {
+        when(cardViewRepository.findById(999L)).thenReturn(Mono.empty());
+
+        RecordNotFoundException exception = assertThrows(RecordNotFoundException.class,
+                () -> reactiveCardService.getCardById(999L, false).block());
+        assertEquals("Card not found with id: 999", exception.getMessage());
+    }
+
+    @Test
+    void getCardByAccountId_existingAccount_returnsCards() {
+        when(cardViewRepository.findAllByCardAccountId(100L)).thenReturn(Flux.just(card1, card2));
+
+        List<CardDto> result = reactiveCardService.getCardByAccountId(100L, true).block();
+
+        assertNotNull(result);
+        assertEquals(2, result.size());
+        assertEquals("1234567890123456", result.get(0).getPan());
+        assertEquals(2L, result.get(1).getId());
+    }
+
+    @Test
+    void getCardByAccountId_nonExistingAccount_throwsException() {
+        when(cardViewRepository.findAllByCardAccountId(999L)).thenReturn(Flux.empty());
+
+        assertThrows(RecordNotFoundException.class, () -> reactiveCardService.getCardByAccountId(999L, false).block());
+    }
+
+    @Test
+    void getCardsByAccountIds_groupsCardsByAccount() {
+        CardView otherAccountCard = card(3L, 200L, "1111222233334444", CardType.VIRTUAL);
+        when(cardViewRepository.findAllByCardAccountIdIn(anyCollection()))
+                .thenReturn(Flux.just(card1, card2, otherAccountCard));
+
+        Map<Long, List<CardDto>> result = reactiveCardService.getCardsByAccountIds(Arrays.asList(100L, 200L, 300L, 100L), false).block();
+
+        assertNotNull(result);
+        assertEquals(List.of(100L, 200L, 300L), new ArrayList<>(result.keySet()));
+        assertEquals(2, result.get(100L).size());
+        assertTrue(result.get(300L).isEmpty());
+        assertEquals("****-****-****-4444", result.get(200L).get(0).getPan());
+        verify(cardViewRepository).findAllByCardAccountIdIn(Set.of(100L, 200L, 300L));
+    }
+
+    @Test
+    void getCardsByAccountIds_emptyRequest_skipsQuery() {
+        Map<Long, List<CardDto>> result = reactiveCardService.getCardsByAccountIds(new ArrayList<>(), false).block();
+
+        assertNotNull(result);
+        assertTrue(result.isEmpty());
+        verify(cardViewRepository, never()).findAllByCardAccountIdIn(anyCollection());
+    }
+
+    @Test
+    void getCardsByAccountIds_tooManyAccounts_rejectedBeforeQuery() {
+        List<Long> accountIds = LongStream.rangeClosed(1, CardServiceImpl.MAX_BATCH_ACCOUNT_IDS + 1).boxed().toList();
+
+        assertThrows(BulkRequestTooLargeException.class, () -> reactiveCardService.getCardsByAccountIds(accountIds, false).block());
+        verify(cardViewRepository, never()).findAllByCardAccountIdIn(anyCollection());
+    }
+}
@@ -1,9 +1,15 @@
 package com.dtb.customer;
 
+import com.dtb.customer.config.BulkImportProperties;
+import com.dtb.customer.config.CustomerExportProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties({BulkImportProperties.class, CustomerExportProperties.class})
 public class CustomerServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(CustomerServiceApplication.class, args);
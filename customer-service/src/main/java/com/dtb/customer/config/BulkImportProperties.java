@@ -0,0 +1,15 @@
+package com.dtb.customer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "customers.bulk")
+public class BulkImportProperties {
+    /* Customers saved per transaction, a failing chunk only affects its own lines*/
+    private int chunkSize = 1000;
+    /* The response streams until the whole body is imported, far longer than spring.mvc.async.request-timeout*/
+    private Duration requestTimeout = Duration.ofMinutes(30);
+}
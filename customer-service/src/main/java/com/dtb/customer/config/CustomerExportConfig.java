@@ -0,0 +1,29 @@
+package com.dtb.customer.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class CustomerExportConfig {
+    /**
+     * Readers of the export partitions. Partitions beyond the pool size wait in the queue in submission
+     * order, so the partition the response is currently writing always starts before the ones after it.
+     * With spring.threads.virtual.enabled the readers are virtual threads, the pool size still applies.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor customerExportExecutor(CustomerExportProperties properties, Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setThreadNamePrefix("customer-export-");
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("customer-export-").getVirtualThreadFactory());
+        }
+        executor.initialize();
+        return executor;
+    }
+}
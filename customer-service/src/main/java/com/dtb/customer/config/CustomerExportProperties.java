@@ -0,0 +1,19 @@
+package com.dtb.customer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "customers.export")
+public class CustomerExportProperties {
+    /* Date range partitions of one export read in parallel, each on its own connection*/
+    private int partitions = 4;
+    /* Customers a partition reads ahead of the response before it waits for the client*/
+    private int queueCapacity = 1000;
+    /* Partition readers shared by all running exports, keep below the connection pool size*/
+    private int threads = 4;
+    /* The response streams until every customer of the range is written*/
+    private Duration requestTimeout = Duration.ofMinutes(30);
+}
@@ -1,18 +1,29 @@
 package com.dtb.customer.controllers;
 
+import com.dtb.common.web.AsyncRequestTimeout;
+import com.dtb.customer.config.BulkImportProperties;
+import com.dtb.customer.config.CustomerExportProperties;
 import com.dtb.customer.dtos.CreateCustomerDto;
 import com.dtb.customer.dtos.CustomerDto;
 import com.dtb.customer.dtos.CustomerListResponseDTO;
 import com.dtb.customer.dtos.CustomerUpdateDto;
+import com.dtb.customer.enums.ExportFormat;
+import com.dtb.customer.services.CustomerBulkImporter;
+import com.dtb.customer.services.CustomerExporter;
 import com.dtb.customer.services.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 
 @RestController
@@ -20,24 +31,55 @@ import java.time.LocalDateTime;
 @Tag(name = "Customer API Operations", description = "Operations for managing customers")
 public class CustomerController {
     private final CustomerService customerService;
-    public CustomerController(CustomerService customerService) {
+    private final CustomerBulkImporter customerBulkImporter;
+    private final CustomerExporter customerExporter;
+    private final BulkImportProperties bulkImportProperties;
+    private final CustomerExportProperties customerExportProperties;
+    public CustomerController(CustomerService customerService, CustomerBulkImporter customerBulkImporter,
+                              CustomerExporter customerExporter, BulkImportProperties bulkImportProperties,
+                              CustomerExportProperties customerExportProperties) {
         this.customerService = customerService;
+        this.customerBulkImporter = customerBulkImporter;
+        this.customerExporter = customerExporter;
+        this.bulkImportProperties = bulkImportProperties;
+        this.customerExportProperties = customerExportProperties;
     }
     @GetMapping
-    @Operation(summary = "Get all customers by Name and Date Range")
+    @Operation(summary = "Get all customers by Name and Date Range", description = "Pass after and/or limit to page by cursor instead of page number")
     public ResponseEntity<CustomerListResponseDTO> getAllCustomers(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Set to false to skip the total count and only report hasNext") @RequestParam(defaultValue = "true") boolean withTotal,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size in cursor mode") @RequestParam(required = false) Integer limit) {
 
+        if (after != null || limit != null) {
+            return ResponseEntity.ok(customerService.findCustomersAfter(name, startDate, endDate, after, limit != null ? limit : size));
+        }
         CustomerListResponseDTO customerListResponse = customerService.findAllCustomers(
-                name, startDate, endDate, page, size);
+                name, startDate, endDate, page, size, withTotal);
 
         return ResponseEntity.ok(customerListResponse);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export customers by Date Range",
+            description = "Streams the customers created between startDate and endDate (default: all) ordered by createdAt and id, "
+                    + "as NDJSON or as consecutive Smile documents. The range is read in parallel partitions. "
+                    + "The last record is a summary, status COMPLETE or FAILED when the export stopped early")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletRequest request) {
+        AsyncRequestTimeout.set(request, customerExportProperties.getRequestTimeout());
+        StreamingResponseBody export = out -> customerExporter.export(startDate, endDate, format, out);
+        return ResponseEntity.ok().contentType(format.getMediaType()).body(export);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get customer by ID")
     public ResponseEntity<CustomerDto> getCustomerById(@PathVariable Long id) {
@@ -49,6 +91,16 @@ public class CustomerController {
         return new ResponseEntity<>(customerService.createCustomer(customerDto), HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Create customers in bulk",
+            description = "Body is NDJSON with one customer per line. The response streams one result per non-blank line "
+                    + "(CREATED, INVALID or FAILED) as each chunk is saved, followed by a summary line")
+    public ResponseEntity<StreamingResponseBody> createCustomersInBulk(InputStream ndjson, HttpServletRequest request) {
+        AsyncRequestTimeout.set(request, bulkImportProperties.getRequestTimeout());
+        StreamingResponseBody results = out -> customerBulkImporter.importCustomers(ndjson, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(results);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update an existing customer")
     public ResponseEntity<CustomerDto> updateCustomer(
@@ -0,0 +1,21 @@
+package com.dtb.customer.dtos;
+
+import com.dtb.customer.enums.BulkImportStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/* One line of the bulk import response, line is the 1-based line number of the request body*/
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkCustomerResultDto {
+    private long line;
+    private BulkImportStatus status;
+    private String id;
+    private List<String> errors;
+}
@@ -0,0 +1,12 @@
+package com.dtb.customer.dtos;
+
+import lombok.Data;
+
+/* Last line of the bulk import response*/
+@Data
+public class BulkImportSummaryDto {
+    private long received;
+    private long created;
+    private long invalid;
+    private long failed;
+}
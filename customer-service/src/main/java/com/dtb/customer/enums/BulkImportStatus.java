@@ -0,0 +1,5 @@
+package com.dtb.customer.enums;
+
+public enum BulkImportStatus {
+    CREATED, INVALID, FAILED
+}
@@ -0,0 +1,20 @@
+package com.dtb.customer.enums;
+
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+    /* One JSON customer per line, then the summary line*/
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    /* Consecutive Smile (binary JSON) documents, one per customer, then the summary document*/
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
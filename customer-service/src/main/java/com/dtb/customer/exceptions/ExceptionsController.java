@@ -1,5 +1,6 @@
 package com.dtb.customer.exceptions;
 
+import com.dtb.common.exceptions.InvalidCursorException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
@@ -42,5 +43,9 @@ public class ExceptionsController {
     public ResponseEntity<String> recordNotFoundExecption(RecordNotFoundException ex) {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> invalidCursorException(InvalidCursorException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
 
 }
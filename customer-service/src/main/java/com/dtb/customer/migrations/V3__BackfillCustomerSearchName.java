@@ -0,0 +1,47 @@
+package com.dtb.customer.migrations;
+
+import com.dtb.customer.utils.SearchNames;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Fills customers.search_name for rows written before the column existed. Done in Java rather than SQL
+ * so existing rows get exactly the normalization new rows get from Customer, which Postgres unaccent
+ * does not reproduce for every character.
+ */
+@Component
+public class V3__BackfillCustomerSearchName extends BaseJavaMigration {
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement select = context.getConnection().createStatement();
+             PreparedStatement update = context.getConnection().prepareStatement(
+                     "UPDATE customers SET search_name = ? WHERE id = ?")) {
+            /* Fetch size only streams on Postgres inside a transaction, Flyway runs migrations in one*/
+            select.setFetchSize(BATCH_SIZE);
+            int pending = 0;
+            try (ResultSet rows = select.executeQuery(
+                    "SELECT id, first_name, last_name, other_name FROM customers WHERE search_name IS NULL")) {
+                while (rows.next()) {
+                    update.setString(1, SearchNames.normalize(
+                            rows.getString("first_name"), rows.getString("last_name"), rows.getString("other_name")));
+                    update.setLong(2, rows.getLong("id"));
+                    update.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        update.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.dtb.customer.models;
 
 import jakarta.persistence.*;
+import com.dtb.customer.utils.SearchNames;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -10,7 +11,8 @@ import java.time.LocalDateTime;
 @Table(name = "customers")
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false)
     private String firstName;
@@ -19,4 +21,13 @@ public class Customer {
     private String otherName;
     @Column(nullable = false)
     private LocalDateTime createdAt;
+    /* Normalized full name backing the indexed name filter, see SearchNames*/
+    @Column(length = 1000)
+    private String searchName;
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchName() {
+        searchName = SearchNames.normalize(firstName, lastName, otherName);
+    }
 }
@@ -0,0 +1,30 @@
+package com.dtb.customer.repository;
+
+import com.dtb.customer.models.Customer;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Customer searches by name and creation date. The name is matched against the normalized search_name column,
+ * and null filters are left out of the generated SQL instead of being matched with "(:x IS NULL OR ...)",
+ * so Postgres can use the trigram and created_at indexes.
+ */
+public interface CustomerSearchRepository {
+    Page<Customer> findCustomersByNameOrDateCreated(String name, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    /*Same filters without the count query, reads one extra row to tell whether a next page exists*/
+    Slice<Customer> findCustomerSliceByNameOrDateCreated(String name, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+
+    /*Keyset page: rows after the given id in id order, no count query*/
+    List<Customer> findCustomersAfter(String name, LocalDateTime startDate, LocalDateTime endDate, Long afterId, Limit limit);
+
+    /*Forward-only cursor over the customers created from startDate up to endDate (inclusive when endInclusive)
+      in createdAt, id order, for exports. Has to be consumed inside a transaction and closed*/
+    Stream<Customer> streamCreatedBetween(LocalDateTime startDate, LocalDateTime endDate, boolean endInclusive);
+}
@@ -0,0 +1,129 @@
+package com.dtb.customer.repository;
+
+import com.dtb.customer.models.Customer;
+import com.dtb.customer.utils.SearchNames;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CustomerSearchRepositoryImpl implements CustomerSearchRepository {
+    private static final EscapeCharacter ESCAPE = EscapeCharacter.DEFAULT;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final EntityManager entityManager;
+
+    public CustomerSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<Customer> findCustomersByNameOrDateCreated(String name, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        List<Customer> content = select(name, startDate, endDate, pageable, pageable.isPaged() ? pageable.getPageSize() : null);
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(name, startDate, endDate));
+    }
+
+    @Override
+    public Slice<Customer> findCustomerSliceByNameOrDateCreated(String name, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(select(name, startDate, endDate, pageable, null), pageable, false);
+        }
+        List<Customer> customers = select(name, startDate, endDate, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = customers.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? customers.subList(0, pageable.getPageSize()) : customers, pageable, hasNext);
+    }
+
+    @Override
+    public List<Customer> findCustomersAfter(String name, LocalDateTime startDate, LocalDateTime endDate, Long afterId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Customer> query = cb.createQuery(Customer.class);
+        Root<Customer> customer = query.from(Customer.class);
+        query.where(filters(cb, customer, name, startDate, endDate, afterId)).orderBy(cb.asc(customer.get("id")));
+
+        TypedQuery<Customer> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public Stream<Customer> streamCreatedBetween(LocalDateTime startDate, LocalDateTime endDate, boolean endInclusive) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Customer> query = cb.createQuery(Customer.class);
+        Root<Customer> customer = query.from(Customer.class);
+        query.where(cb.greaterThanOrEqualTo(customer.get("createdAt"), startDate), endInclusive
+                        ? cb.lessThanOrEqualTo(customer.get("createdAt"), endDate)
+                        : cb.lessThan(customer.get("createdAt"), endDate))
+                .orderBy(cb.asc(customer.get("createdAt")), cb.asc(customer.get("id")));
+
+        /* Rows arrive from the database in batches and are not dirty checked*/
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private List<Customer> select(String name, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable, Integer maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Customer> query = cb.createQuery(Customer.class);
+        Root<Customer> customer = query.from(Customer.class);
+        query.where(filters(cb, customer, name, startDate, endDate, null));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), customer, cb));
+        }
+
+        TypedQuery<Customer> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+        }
+        if (maxResults != null) {
+            typedQuery.setMaxResults(maxResults);
+        }
+        return typedQuery.getResultList();
+    }
+
+    private long count(String name, LocalDateTime startDate, LocalDateTime endDate) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Customer> customer = query.from(Customer.class);
+        query.select(cb.count(customer)).where(filters(cb, customer, name, startDate, endDate, null));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private Predicate[] filters(CriteriaBuilder cb, Root<Customer> customer, String name,
+                                LocalDateTime startDate, LocalDateTime endDate, Long afterId) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(customer.get("id"), afterId));
+        }
+        String searchName = name != null ? SearchNames.normalize(name) : "";
+        if (!searchName.isEmpty()) {
+            /* Wildcards typed by the caller are matched literally, as Spring Data does for LIKE %:param%*/
+            predicates.add(cb.like(customer.get("searchName"), "%" + ESCAPE.escape(searchName) + "%", ESCAPE.getEscapeCharacter()));
+        }
+        if (startDate != null) {
+            predicates.add(cb.greaterThanOrEqualTo(customer.get("createdAt"), startDate));
+        }
+        if (endDate != null) {
+            predicates.add(cb.lessThanOrEqualTo(customer.get("createdAt"), endDate));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -0,0 +1,149 @@
+package com.dtb.customer.services;
+
+import com.dtb.customer.config.BulkImportProperties;
+import com.dtb.customer.dtos.BulkCustomerResultDto;
+import com.dtb.customer.dtos.BulkImportSummaryDto;
+import com.dtb.customer.dtos.CreateCustomerDto;
+import com.dtb.customer.enums.BulkImportStatus;
+import com.dtb.customer.models.Customer;
+import com.dtb.customer.repository.CustomerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates customers from an NDJSON stream of {@link CreateCustomerDto}, one per line. Lines are parsed and
+ * validated as they arrive, valid ones are saved in transactions of {@code customers.bulk.chunk-size}, and
+ * a result line is written for every input line as soon as its chunk is done.
+ */
+@Service
+@Slf4j
+public class CustomerBulkImporter {
+    private final CustomerRepository customerRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader lineReader;
+    private final ObjectWriter resultWriter;
+    private final BulkImportProperties properties;
+
+    public CustomerBulkImporter(CustomerRepository customerRepository, Validator validator,
+                                PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                BulkImportProperties properties) {
+        this.customerRepository = customerRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lineReader = objectMapper.readerFor(CreateCustomerDto.class);
+        this.resultWriter = objectMapper.writer();
+        this.properties = properties;
+    }
+
+    public BulkImportSummaryDto importCustomers(InputStream ndjson, OutputStream results) throws IOException {
+        BulkImportSummaryDto summary = new BulkImportSummaryDto();
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        List<PendingCustomer> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            summary.setReceived(summary.getReceived() + 1);
+
+            List<String> errors = new ArrayList<>();
+            CreateCustomerDto dto = parse(line, errors);
+            if (dto != null) {
+                Set<ConstraintViolation<CreateCustomerDto>> violations = validator.validate(dto);
+                violations.forEach(violation -> errors.add(violation.getPropertyPath() + ": " + violation.getMessage()));
+            }
+            if (!errors.isEmpty()) {
+                summary.setInvalid(summary.getInvalid() + 1);
+                write(results, new BulkCustomerResultDto(lineNumber, BulkImportStatus.INVALID, null, errors));
+                continue;
+            }
+
+            chunk.add(new PendingCustomer(lineNumber, toEntity(dto)));
+            if (chunk.size() == chunkSize) {
+                saveChunk(chunk, results, summary);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, results, summary);
+        }
+        write(results, summary);
+        results.flush();
+        log.info("Bulk import finished: {} received, {} created, {} invalid, {} failed",
+                summary.getReceived(), summary.getCreated(), summary.getInvalid(), summary.getFailed());
+        return summary;
+    }
+
+    private CreateCustomerDto parse(String line, List<String> errors) {
+        try {
+            return lineReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            errors.add("Malformed JSON: " + e.getOriginalMessage());
+            return null;
+        }
+    }
+
+    private void saveChunk(List<PendingCustomer> chunk, OutputStream results, BulkImportSummaryDto summary) throws IOException {
+        String failure = null;
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    customerRepository.saveAll(chunk.stream().map(PendingCustomer::customer).toList()));
+        } catch (RuntimeException e) {
+            log.warn("Bulk import chunk of {} customers failed: {}", chunk.size(), e.getMessage());
+            failure = e.getMessage();
+        }
+        for (PendingCustomer pending : chunk) {
+            write(results, failure == null
+                    ? new BulkCustomerResultDto(pending.line(), BulkImportStatus.CREATED, pending.customer().getId().toString(), null)
+                    : new BulkCustomerResultDto(pending.line(), BulkImportStatus.FAILED, null, List.of(failure)));
+        }
+        if (failure == null) {
+            summary.setCreated(summary.getCreated() + chunk.size());
+        } else {
+            summary.setFailed(summary.getFailed() + chunk.size());
+        }
+        /* Push the chunk's results to the client before reading further*/
+        results.flush();
+        chunk.clear();
+    }
+
+    private void write(OutputStream results, Object value) throws IOException {
+        results.write(resultWriter.writeValueAsBytes(value));
+        results.write('\n');
+    }
+
+    private Customer toEntity(CreateCustomerDto dto) {
+        Customer customer = new Customer();
+        customer.setFirstName(dto.getFirstName());
+        customer.setLastName(dto.getLastName());
+        customer.setOtherName(dto.getOtherName());
+        customer.setCreatedAt(LocalDateTime.now());
+        return customer;
+    }
+
+    private record PendingCustomer(long line, Customer customer) {
+    }
+}
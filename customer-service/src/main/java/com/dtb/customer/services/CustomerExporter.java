@@ -0,0 +1,232 @@
+package com.dtb.customer.services;
+
+import com.dtb.common.dtos.ExportSummaryDto;
+import com.dtb.customer.config.CustomerExportProperties;
+import com.dtb.customer.enums.ExportFormat;
+import com.dtb.customer.models.Customer;
+import com.dtb.customer.repository.CustomerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Writes the customers created in a date range, ordered by createdAt and id. The range is split into
+ * {@code customers.export.partitions} consecutive time slices that are read in parallel, each through a
+ * forward-only cursor in its own read-only transaction. Readers serialize into bounded queues and the
+ * response drains the queues in slice order, so the output is ordered, memory is bounded by the queue
+ * capacity and a slow client stalls the readers instead of buffering rows.
+ */
+@Service
+@Slf4j
+public class CustomerExporter {
+    /* Marks the end of a partition in its queue*/
+    private static final byte[] END = new byte[0];
+
+    private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final CustomerExportProperties properties;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter smileWriter;
+
+    public CustomerExporter(CustomerRepository customerRepository, EntityManager entityManager,
+                            PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                            @Qualifier("customerExportExecutor") ThreadPoolTaskExecutor executor,
+                            CustomerExportProperties properties) {
+        this.customerRepository = customerRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.executor = executor;
+        this.properties = properties;
+        this.ndjsonWriter = objectMapper.writer();
+        /* Every customer is a self-contained document, back references would point into the previous documents*/
+        this.smileWriter = objectMapper.copyWith(SmileFactory.builder()
+                .disable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .disable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()).writer();
+    }
+
+    /* startDate and endDate are inclusive like the list filters, missing bounds default to the first and last customer.
+       Ends with an ExportSummaryDto record, FAILED when a partition could not be read*/
+    public long export(LocalDateTime startDate, LocalDateTime endDate, ExportFormat format, OutputStream target) throws IOException {
+        OutputStream out = new BufferedOutputStream(target, 64 * 1024);
+        ExportSummaryDto summary = new ExportSummaryDto();
+        LocalDateTime start = startDate != null ? startDate : customerRepository.findFirstCreatedAt();
+        LocalDateTime end = endDate != null ? endDate : customerRepository.findLastCreatedAt();
+        if (start == null || end == null || start.isAfter(end)) {
+            writeSummary(out, format, summary);
+            out.flush();
+            return 0;
+        }
+
+        List<Partition> partitions = split(start, end, format);
+        List<Future<?>> readers = new ArrayList<>(partitions.size());
+        boolean completed = false;
+        try {
+            partitions.forEach(partition -> readers.add(executor.submit(partition)));
+            for (Partition partition : partitions) {
+                partition.drainTo(out, summary);
+            }
+            writeSummary(out, format, summary);
+            out.flush();
+            completed = true;
+        } catch (RuntimeException e) {
+            /* The rows already sent went out with a 200, the summary tells the client the export is incomplete*/
+            summary.setStatus(ExportSummaryDto.Status.FAILED);
+            summary.setError("Export stopped after " + summary.getExported() + " customers: " + e.getMessage());
+            writeSummary(out, format, summary);
+            out.flush();
+            throw e;
+        } finally {
+            if (!completed) {
+                /* Client gone or a partition failed, stop the readers still holding connections*/
+                readers.forEach(reader -> reader.cancel(true));
+            }
+        }
+        log.info("Exported {} customers created between {} and {} as {} in {} partitions", summary.getExported(), start, end, format, partitions.size());
+        return summary.getExported();
+    }
+
+    private void writeSummary(OutputStream out, ExportFormat format, ExportSummaryDto summary) throws IOException {
+        if (format == ExportFormat.SMILE) {
+            out.write(smileWriter.writeValueAsBytes(summary));
+        } else {
+            out.write(ndjsonWriter.writeValueAsBytes(summary));
+            out.write('\n');
+        }
+    }
+
+    private List<Partition> split(LocalDateTime start, LocalDateTime end, ExportFormat format) {
+        int count = Math.max(1, properties.getPartitions());
+        long span = Duration.between(start, end).toNanos();
+        List<Partition> partitions = new ArrayList<>(count);
+        LocalDateTime from = start;
+        for (int i = 1; i < count; i++) {
+            /* Boundaries at the database's microsecond precision so no row falls between two slices*/
+            LocalDateTime to = start.plusNanos(span / count * i).truncatedTo(ChronoUnit.MICROS);
+            if (to.isAfter(from)) {
+                partitions.add(new Partition(from, to, false, format));
+                from = to;
+            }
+        }
+        partitions.add(new Partition(from, end, true, format));
+        return partitions;
+    }
+
+    private final class Partition implements Runnable {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final boolean toInclusive;
+        private final ExportFormat format;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        private volatile RuntimeException failure;
+
+        private Partition(LocalDateTime from, LocalDateTime to, boolean toInclusive, ExportFormat format) {
+            this.from = from;
+            this.to = to;
+            this.toInclusive = toInclusive;
+            this.format = format;
+        }
+
+        @Override
+        public void run() {
+            try {
+                /* Postgres only honours the fetch size inside a transaction, otherwise the driver reads the whole slice*/
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<Customer> customers = customerRepository.streamCreatedBetween(from, to, toInclusive)) {
+                        read(customers.iterator());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Export cancelled");
+                    }
+                });
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            try {
+                if (!Thread.currentThread().isInterrupted()) {
+                    queue.put(END);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void read(Iterator<Customer> customers) throws IOException, InterruptedException {
+            int capacity = Math.max(1, properties.getQueueCapacity());
+            long read = 0;
+            while (customers.hasNext()) {
+                byte[] customer = serialize(customers.next());
+                /* Blocks while the response is behind, which holds the cursor where it is*/
+                queue.put(customer);
+                if (++read % capacity == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+
+        private byte[] serialize(Customer customer) throws IOException {
+            if (format == ExportFormat.SMILE) {
+                return smileWriter.writeValueAsBytes(CustomerServiceImpl.mapEntitytoDto(customer));
+            }
+            byte[] json = ndjsonWriter.writeValueAsBytes(CustomerServiceImpl.mapEntitytoDto(customer));
+            byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            return line;
+        }
+
+        private void drainTo(OutputStream out, ExportSummaryDto summary) throws IOException {
+            try {
+                while (true) {
+                    byte[] customer = queue.poll();
+                    if (customer == null) {
+                        /* Reader is behind, send what is buffered instead of holding it back*/
+                        out.flush();
+                        customer = queue.take();
+                    }
+                    if (customer == END) {
+                        if (failure != null) {
+                            throw new IllegalStateException("Export of customers created from " + from + " to " + to + " failed", failure);
+                        }
+                        return;
+                    }
+                    out.write(customer);
+                    summary.setExported(summary.getExported() + 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Export interrupted");
+            }
+        }
+    }
+}
@@ -13,7 +13,14 @@ public interface CustomerService {
                                              LocalDateTime startDate,
                                              LocalDateTime endDate,
                                              int page,
-                                             int size);
+                                             int size,
+                                             boolean withTotal);
+
+    CustomerListResponseDTO findCustomersAfter(String name,
+                                               LocalDateTime startDate,
+                                               LocalDateTime endDate,
+                                               String after,
+                                               int limit);
 
     //    PagedResponse<CustomerDTO> searchCustomers(String name, String createdDateStart, String createdDateEnd, int page, int size);
     CustomerDto findById(Long id);
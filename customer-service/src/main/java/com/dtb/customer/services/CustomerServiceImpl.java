@@ -7,35 +7,47 @@ import com.dtb.customer.dtos.CreateCustomerDto;
 import com.dtb.customer.dtos.CustomerDto;
 import com.dtb.customer.models.Customer;
 import com.dtb.customer.repository.CustomerRepository;
+import com.dtb.common.repository.RowCountEstimator;
+import com.dtb.common.utils.PageCursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class CustomerServiceImpl implements CustomerService {
     private final CustomerRepository customerRepository;
+    private final RowCountEstimator rowCountEstimator;
 
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, RowCountEstimator rowCountEstimator) {
         this.customerRepository = customerRepository;
+        this.rowCountEstimator = rowCountEstimator;
     }
     @Override
     public CustomerListResponseDTO findAllCustomers(String name,
                                                     LocalDateTime startDate,
                                                     LocalDateTime endDate,
-                                                    int page, int size) {
+                                                    int page, int size, boolean withTotal) {
         Pageable pageable = PageRequest.of(page, size);
 
+        boolean unfiltered = name == null && startDate == null && endDate == null;
+        Optional<RowCountEstimator.Estimate> estimate = withTotal && unfiltered ? rowCountEstimator.getEstimate() : Optional.empty();
+        if (!withTotal || estimate.isPresent()) {
+            return findCustomerSlice(name, startDate, endDate, pageable, estimate);
+        }
         Page<Customer> customerPage = customerRepository.findCustomersByNameOrDateCreated(name, startDate, endDate, pageable);
         List<CustomerDto> customerDtos = customerPage.getContent().stream()
-                .map(this::mapEntitytoDto).collect(Collectors.toList());
+                .map(CustomerServiceImpl::mapEntitytoDto).collect(Collectors.toList());
 
         CustomerListResponseDTO responseDTO = new CustomerListResponseDTO();
         responseDTO.setCustomers(customerDtos);
@@ -46,10 +58,55 @@ public class CustomerServiceImpl implements CustomerService {
         return responseDTO;
     }
 
+    private CustomerListResponseDTO findCustomerSlice(String name, LocalDateTime startDate, LocalDateTime endDate,
+                                                      Pageable pageable, Optional<RowCountEstimator.Estimate> estimate) {
+        Slice<Customer> customerSlice = customerRepository.findCustomerSliceByNameOrDateCreated(name, startDate, endDate, pageable);
+
+        CustomerListResponseDTO responseDTO = new CustomerListResponseDTO();
+        responseDTO.setCustomers(customerSlice.getContent().stream()
+                .map(CustomerServiceImpl::mapEntitytoDto).collect(Collectors.toList()));
+        responseDTO.setPage(customerSlice.getNumber());
+        responseDTO.setSize(customerSlice.getSize());
+        responseDTO.setHasNext(customerSlice.hasNext());
+        responseDTO.setTotalItems(-1);
+        responseDTO.setTotalPages(-1);
+        estimate.ifPresent(e -> {
+            responseDTO.setTotalItems(e.totalItemsAtLeast(pageable, customerSlice));
+            responseDTO.setTotalPages(e.totalPagesAtLeast(pageable, customerSlice));
+            responseDTO.setTotalsApproximate(true);
+            responseDTO.setTotalsAsOf(e.getAsOf());
+        });
+        return responseDTO;
+    }
+
+    @Override
+    public CustomerListResponseDTO findCustomersAfter(String name,
+                                                      LocalDateTime startDate,
+                                                      LocalDateTime endDate,
+                                                      String after, int limit) {
+        int pageSize = Math.max(1, limit);
+        /* One extra row tells whether a next page exists without a count query*/
+        List<Customer> customers = customerRepository.findCustomersAfter(
+                name, startDate, endDate, PageCursor.decode(after), Limit.of(pageSize + 1));
+        boolean hasNext = customers.size() > pageSize;
+        List<Customer> pageContent = hasNext ? customers.subList(0, pageSize) : customers;
+
+        CustomerListResponseDTO responseDTO = new CustomerListResponseDTO();
+        responseDTO.setCustomers(pageContent.stream()
+                .map(CustomerServiceImpl::mapEntitytoDto).collect(Collectors.toList()));
+        responseDTO.setSize(pageSize);
+        responseDTO.setTotalItems(-1);
+        responseDTO.setTotalPages(-1);
+        if (hasNext) {
+            responseDTO.setNextCursor(PageCursor.encode(pageContent.get(pageSize - 1).getId()));
+        }
+        return responseDTO;
+    }
+
     @Override
     public CustomerDto findById(Long id) {
         return customerRepository.findById(id)
-                .map(this::mapEntitytoDto)
+                .map(CustomerServiceImpl::mapEntitytoDto)
                 .orElseThrow(() -> new RecordNotFoundException("Customer not found with id: " + id));
     }
 
@@ -94,7 +151,7 @@ public class CustomerServiceImpl implements CustomerService {
         customerRepository.deleteById(id);
     }
 
-    private CustomerDto mapEntitytoDto(Customer customer) {
+    static CustomerDto mapEntitytoDto(Customer customer) {
         CustomerDto customerDto = new CustomerDto();
         customerDto.setId(customer.getId().toString());
         customerDto.setFirstName(customer.getFirstName());
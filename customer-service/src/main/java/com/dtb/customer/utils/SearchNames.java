@@ -0,0 +1,29 @@
+package com.dtb.customer.utils;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Normalization shared by the persisted customers.search_name column and the name filter,
+ * so "José", "JOSE" and "jose" all match each other.
+ */
+public final class SearchNames {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchNames() {
+    }
+
+    /* Lower-cased, accent-folded parts joined by single spaces, null and blank parts are skipped*/
+    public static String normalize(String... parts) {
+        String joined = Arrays.stream(parts)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" "));
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(joined, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,9 @@
+-- Baseline of the schema previously generated by Hibernate (ddl-auto=update).
+-- IF NOT EXISTS keeps it a no-op on databases that already have the table.
+CREATE TABLE IF NOT EXISTS customers (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    other_name VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL
+);
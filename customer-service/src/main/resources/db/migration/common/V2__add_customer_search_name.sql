@@ -0,0 +1,3 @@
+-- Lower-cased, accent-folded "first last other" name, written by Customer on insert and update.
+-- Existing rows are filled by the V3 Java migration with the same normalization.
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS search_name VARCHAR(1000);
@@ -0,0 +1,3 @@
+-- H2 has no pg_trgm, plain indexes keep the migration history identical to Postgres
+CREATE INDEX IF NOT EXISTS idx_customers_search_name ON customers (search_name);
+CREATE INDEX IF NOT EXISTS idx_customers_created_at_id ON customers (created_at, id);
@@ -0,0 +1,12 @@
+-- Trigram GIN index so LIKE '%x%' on the normalized name is index-assisted.
+-- Patterns shorter than 3 characters produce no trigrams and still scan.
+-- On a large existing table build these by hand with CREATE INDEX CONCURRENTLY before deploying,
+-- the statements below are then no-ops.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_customers_search_name_trgm ON customers USING gin (search_name gin_trgm_ops);
+
+-- Date range filter, also read in (created_at, id) order by the export. It does not give keyset pages
+-- (ORDER BY id) their order: a date filtered page sorts the matching range, or the planner walks the
+-- primary key and checks the dates instead when the range is wide
+CREATE INDEX IF NOT EXISTS idx_customers_created_at_id ON customers (created_at, id);
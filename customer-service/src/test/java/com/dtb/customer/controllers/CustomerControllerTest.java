@@ -1,25 +1,39 @@
 package com.dtb.customer.controllers;
 
+import com.dtb.customer.config.BulkImportProperties;
+import com.dtb.customer.config.CustomerExportProperties;
 import com.dtb.customer.dtos.*;
 import com.dtb.customer.exceptions.ExceptionsController;
+import com.dtb.common.exceptions.InvalidCursorException;
 import com.dtb.customer.exceptions.RecordNotFoundException;
+import com.dtb.customer.enums.ExportFormat;
+import com.dtb.customer.services.CustomerBulkImporter;
+import com.dtb.customer.services.CustomerExporter;
 import com.dtb.customer.services.CustomerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.MockitoAnnotations;
 
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,6 +44,14 @@ class CustomerControllerTest {
     private MockMvc mockMvc;
     @Mock
     private CustomerService customerService;
+    @Mock
+    private CustomerBulkImporter customerBulkImporter;
+    @Mock
+    private CustomerExporter customerExporter;
+    @Spy
+    private BulkImportProperties bulkImportProperties = new BulkImportProperties();
+    @Spy
+    private CustomerExportProperties customerExportProperties = new CustomerExportProperties();
     private ObjectMapper objectMapper;
     private CustomerDto sampleDto;
     private CreateCustomerDto createDto;
@@ -82,7 +104,7 @@ class CustomerControllerTest {
         responseDTO.setTotalItems(1L);
         responseDTO.setTotalPages(1);
 
-        when(customerService.findAllCustomers(any(), any(), any(), anyInt(), anyInt()))
+        when(customerService.findAllCustomers(any(), any(), any(), anyInt(), anyInt(), anyBoolean()))
                 .thenReturn(responseDTO);
 
         mockMvc.perform(get("/api/customers"))
@@ -91,6 +113,33 @@ class CustomerControllerTest {
                 .andExpect(jsonPath("$.customers[0].firstName", is("John")));
     }
 
+    @Test
+    void testGetAllCustomers_WithCursor() throws Exception {
+        CustomerListResponseDTO responseDTO = new CustomerListResponseDTO();
+        responseDTO.setCustomers(Collections.singletonList(sampleDto));
+        responseDTO.setSize(1);
+        responseDTO.setTotalItems(-1);
+        responseDTO.setTotalPages(-1);
+        responseDTO.setNextCursor("MQ");
+
+        when(customerService.findCustomersAfter(isNull(), isNull(), isNull(), eq("MA"), eq(1)))
+                .thenReturn(responseDTO);
+
+        mockMvc.perform(get("/api/customers").param("after", "MA").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor", is("MQ")));
+    }
+
+    @Test
+    void testGetAllCustomers_InvalidCursor() throws Exception {
+        when(customerService.findCustomersAfter(any(), any(), any(), eq("bad"), anyInt()))
+                .thenThrow(new InvalidCursorException("Invalid page cursor: bad"));
+
+        mockMvc.perform(get("/api/customers").param("after", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testCreateCustomer_Success() throws Exception {
         when(customerService.createCustomer(any(CreateCustomerDto.class)))
@@ -130,4 +179,71 @@ class CustomerControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+
+    @Test
+    void testCreateCustomersInBulk_StreamsImporterResults() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"line\":1,\"status\":\"CREATED\",\"id\":\"1\"}\n".getBytes(StandardCharsets.UTF_8));
+            return new BulkImportSummaryDto();
+        }).when(customerBulkImporter).importCustomers(any(), any());
+
+        MvcResult result = mockMvc.perform(post("/api/customers/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(createDto) + "\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        /* Only this request waits longer than the async default*/
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"status\":\"CREATED\"")));
+        verify(customerBulkImporter).importCustomers(any(), any());
+    }
+
+    @Test
+    void testCreateCustomersInBulk_RejectsNonNdjsonBody() throws Exception {
+        mockMvc.perform(post("/api/customers/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(customerBulkImporter);
+    }
+
+    @Test
+    void testExportCustomers_StreamsExporterOutput() throws Exception {
+        LocalDateTime startDate = LocalDateTime.of(2024, 1, 1, 0, 0);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("{\"id\":\"1\"}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(customerExporter).export(eq(startDate), isNull(), eq(ExportFormat.NDJSON), any());
+
+        customerExportProperties.setRequestTimeout(Duration.ofMinutes(5));
+        MvcResult result = mockMvc.perform(get("/api/customers/export").param("startDate", "2024-01-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(Duration.ofMinutes(5).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":\"1\"}\n"));
+    }
+
+    @Test
+    void testExportCustomers_SmileFormat() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/customers/export").param("format", "SMILE"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"));
+
+        verify(customerExporter).export(isNull(), isNull(), eq(ExportFormat.SMILE), any());
+    }
 }
@@ -0,0 +1,127 @@
+package com.dtb.customer.services;
+
+import com.dtb.customer.config.BulkImportProperties;
+import com.dtb.customer.dtos.BulkImportSummaryDto;
+import com.dtb.customer.models.Customer;
+import com.dtb.customer.repository.CustomerRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class CustomerBulkImporterTest {
+    @Mock
+    private CustomerRepository customerRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CustomerBulkImporter importer;
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        BulkImportProperties properties = new BulkImportProperties();
+        properties.setChunkSize(2);
+        importer = new CustomerBulkImporter(customerRepository, Validation.buildDefaultValidatorFactory().getValidator(),
+                transactionManager, objectMapper, properties);
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            customers.forEach(customer -> customer.setId(ids.incrementAndGet()));
+            return customers;
+        });
+    }
+
+    private List<JsonNode> run(String body, BulkImportSummaryDto[] summary) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        summary[0] = importer.importCustomers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    @Test
+    void importCustomers_savesValidLinesInChunks() throws Exception {
+        String body = """
+                {"firstName":"John","lastName":"Doe"}
+                {"firstName":"Jane","lastName":"Doe","otherName":"M"}
+
+                {"firstName":"José","lastName":"Núñez"}
+                """;
+        BulkImportSummaryDto[] summary = new BulkImportSummaryDto[1];
+
+        List<JsonNode> lines = run(body, summary);
+
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0).get("line").asLong()).isEqualTo(1);
+        assertThat(lines.get(0).get("status").asText()).isEqualTo("CREATED");
+        assertThat(lines.get(2).get("line").asLong()).isEqualTo(4);
+        assertThat(lines.get(3).get("created").asLong()).isEqualTo(3);
+        assertThat(summary[0].getReceived()).isEqualTo(3);
+        verify(customerRepository, times(2)).saveAll(anyList());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void importCustomers_reportsInvalidAndMalformedLines() throws Exception {
+        String body = """
+                {"firstName":"","lastName":"Doe"}
+                not json
+                {"firstName":"John","lastName":"Doe"}
+                """;
+        BulkImportSummaryDto[] summary = new BulkImportSummaryDto[1];
+
+        List<JsonNode> lines = run(body, summary);
+
+        assertThat(lines.get(0).get("status").asText()).isEqualTo("INVALID");
+        assertThat(lines.get(0).get("errors").get(0).asText()).contains("firstName");
+        assertThat(lines.get(1).get("status").asText()).isEqualTo("INVALID");
+        assertThat(lines.get(1).get("errors").get(0).asText()).startsWith("Malformed JSON");
+        assertThat(lines.get(2).get("status").asText()).isEqualTo("CREATED");
+        assertThat(summary[0].getInvalid()).isEqualTo(2);
+        assertThat(summary[0].getCreated()).isEqualTo(1);
+    }
+
+    @Test
+    void importCustomers_failedChunkDoesNotStopTheImport() throws Exception {
+        when(customerRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("constraint violated"))
+                .thenAnswer(invocation -> {
+                    List<Customer> customers = invocation.getArgument(0);
+                    customers.forEach(customer -> customer.setId(ids.incrementAndGet()));
+                    return customers;
+                });
+        String body = """
+                {"firstName":"A","lastName":"One"}
+                {"firstName":"B","lastName":"Two"}
+                {"firstName":"C","lastName":"Three"}
+                """;
+        BulkImportSummaryDto[] summary = new BulkImportSummaryDto[1];
+
+        List<JsonNode> lines = run(body, summary);
+
+        assertThat(lines.get(0).get("status").asText()).isEqualTo("FAILED");
+        assertThat(lines.get(1).get("status").asText()).isEqualTo("FAILED");
+        assertThat(lines.get(2).get("status").asText()).isEqualTo("CREATED");
+        assertThat(summary[0].getFailed()).isEqualTo(2);
+        verify(transactionManager).rollback(any());
+    }
+}
@@ -0,0 +1,165 @@
+package com.dtb.customer.services;
+
+import com.dtb.customer.config.CustomerExportProperties;
+import com.dtb.customer.dtos.CustomerDto;
+import com.dtb.customer.enums.ExportFormat;
+import com.dtb.customer.models.Customer;
+import com.dtb.customer.repository.CustomerRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CustomerExporterTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private CustomerRepository customerRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private ThreadPoolTaskExecutor executor;
+    private CustomerExporter exporter;
+    private final List<Customer> customers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.initialize();
+        CustomerExportProperties properties = new CustomerExportProperties();
+        properties.setPartitions(3);
+        /* Smaller than a partition so the readers have to wait for the response*/
+        properties.setQueueCapacity(2);
+        exporter = new CustomerExporter(customerRepository, entityManager, transactionManager, objectMapper, executor, properties);
+
+        for (int day = 0; day < 9; day++) {
+            customers.add(customer(day + 1L, START.plusDays(day)));
+        }
+        when(customerRepository.streamCreatedBetween(any(), any(), anyBoolean())).thenAnswer(invocation -> {
+            LocalDateTime from = invocation.getArgument(0);
+            LocalDateTime to = invocation.getArgument(1);
+            boolean toInclusive = invocation.getArgument(2);
+            return customers.stream().filter(customer -> !customer.getCreatedAt().isBefore(from)
+                    && (customer.getCreatedAt().isBefore(to) || toInclusive && customer.getCreatedAt().isEqual(to)));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private Customer customer(Long id, LocalDateTime createdAt) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setFirstName("First" + id);
+        customer.setLastName("Last" + id);
+        customer.setCreatedAt(createdAt);
+        return customer;
+    }
+
+    @Test
+    void export_ndjsonMergesPartitionsInOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = exporter.export(START, START.plusDays(8), ExportFormat.NDJSON, out);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        assertThat(exported).isEqualTo(9);
+        assertThat(lines.subList(0, 9)).extracting(line -> line.get("id").asText())
+                .containsExactly("1", "2", "3", "4", "5", "6", "7", "8", "9");
+        assertThat(lines.get(9).get("status").asText()).isEqualTo("COMPLETE");
+        assertThat(lines.get(9).get("exported").asLong()).isEqualTo(9);
+        verify(customerRepository, times(2)).streamCreatedBetween(any(), any(), eq(false));
+        verify(customerRepository).streamCreatedBetween(any(), eq(START.plusDays(8)), eq(true));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void export_smileWritesOneDocumentPerCustomer() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.export(START.plusDays(2), START.plusDays(4), ExportFormat.SMILE, out);
+
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).findAndRegisterModules();
+        List<JsonNode> documents;
+        try (MappingIterator<JsonNode> values = smileMapper.readerFor(JsonNode.class).readValues(out.toByteArray())) {
+            documents = values.readAll();
+        }
+        List<CustomerDto> exported = new ArrayList<>();
+        for (JsonNode document : documents.subList(0, documents.size() - 1)) {
+            exported.add(smileMapper.treeToValue(document, CustomerDto.class));
+        }
+        assertThat(exported).extracting(CustomerDto::getId).containsExactly("3", "4", "5");
+        assertThat(exported.get(2).getCreatedAt()).isEqualTo(START.plusDays(4));
+        assertThat(documents.get(3).get("status").asText()).isEqualTo("COMPLETE");
+    }
+
+    @Test
+    void export_withoutRangeUsesFirstAndLastCustomer() throws Exception {
+        when(customerRepository.findFirstCreatedAt()).thenReturn(START);
+        when(customerRepository.findLastCreatedAt()).thenReturn(START.plusDays(8));
+
+        assertThat(exporter.export(null, null, ExportFormat.NDJSON, new ByteArrayOutputStream())).isEqualTo(9);
+    }
+
+    @Test
+    void export_emptyTableWritesOnlyTheSummary() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exporter.export(null, null, ExportFormat.NDJSON, out)).isZero();
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"status\":\"COMPLETE\",\"exported\":0}\n");
+        verify(customerRepository, never()).streamCreatedBetween(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void export_failedPartitionFailsTheExport() throws Exception {
+        when(customerRepository.streamCreatedBetween(any(), any(), eq(true)))
+                .thenReturn(Stream.of(customers.get(8)).map(customer -> {
+                    throw new IllegalStateException("connection lost");
+                }));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> exporter.export(START, START.plusDays(8), ExportFormat.NDJSON, out))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("connection lost");
+
+        /* The first two partitions were sent, the client learns that the rest is missing*/
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(7);
+        JsonNode summary = objectMapper.readTree(lines[6]);
+        assertThat(summary.get("status").asText()).isEqualTo("FAILED");
+        assertThat(summary.get("exported").asLong()).isEqualTo(6);
+    }
+}
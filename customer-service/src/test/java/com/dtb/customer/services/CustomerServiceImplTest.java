@@ -1,9 +1,12 @@
 package com.dtb.customer.services;
 
 import com.dtb.customer.dtos.*;
+import com.dtb.common.exceptions.InvalidCursorException;
 import com.dtb.customer.exceptions.RecordNotFoundException;
 import com.dtb.customer.models.Customer;
 import com.dtb.customer.repository.CustomerRepository;
+import com.dtb.common.repository.RowCountEstimator;
+import com.dtb.common.utils.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -18,6 +21,8 @@ import static org.mockito.Mockito.*;
 class CustomerServiceImplTest {
     @Mock
     private CustomerRepository customerRepository;
+    @Mock
+    private RowCountEstimator rowCountEstimator;
     @InjectMocks
     private CustomerServiceImpl customerService;
     @BeforeEach
@@ -45,7 +50,7 @@ class CustomerServiceImplTest {
                 .thenReturn(page);
 
         // Act
-        CustomerListResponseDTO response = customerService.findAllCustomers("John", null, null, 0, 10);
+        CustomerListResponseDTO response = customerService.findAllCustomers("John", null, null, 0, 10, true);
 
         // Assert
         assertThat(response).isNotNull();
@@ -55,6 +60,68 @@ class CustomerServiceImplTest {
         verify(customerRepository).findCustomersByNameOrDateCreated(eq("John"), any(), any(), any());
     }
 
+    @Test
+    void findAllCustomers_withoutTotal_skipsCountQuery() {
+        when(customerRepository.findCustomerSliceByNameOrDateCreated(eq("John"), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(getSampleCustomer(1L)), PageRequest.of(0, 1), true));
+
+        CustomerListResponseDTO response = customerService.findAllCustomers("John", null, null, 0, 1, false);
+
+        assertThat(response.getCustomers()).hasSize(1);
+        assertThat(response.getHasNext()).isTrue();
+        assertThat(response.getTotalItems()).isEqualTo(-1);
+        assertThat(response.getTotalsApproximate()).isNull();
+        verify(customerRepository, never()).findCustomersByNameOrDateCreated(any(), any(), any(), any());
+    }
+
+    @Test
+    void findAllCustomers_unfilteredWithEstimate_returnsApproximateTotals() {
+        LocalDateTime asOf = LocalDateTime.now();
+        when(rowCountEstimator.getEstimate()).thenReturn(Optional.of(new RowCountEstimator.Estimate(1000, asOf)));
+        when(customerRepository.findCustomerSliceByNameOrDateCreated(isNull(), isNull(), isNull(), any()))
+                .thenReturn(new SliceImpl<>(List.of(getSampleCustomer(1L)), PageRequest.of(0, 10), true));
+
+        CustomerListResponseDTO response = customerService.findAllCustomers(null, null, null, 0, 10, true);
+
+        assertThat(response.getTotalItems()).isEqualTo(1000);
+        assertThat(response.getTotalPages()).isEqualTo(100);
+        assertThat(response.getTotalsApproximate()).isTrue();
+        assertThat(response.getTotalsAsOf()).isEqualTo(asOf);
+        verify(customerRepository, never()).findCustomersByNameOrDateCreated(any(), any(), any(), any());
+    }
+
+    @Test
+    void findCustomersAfter_returnsKeysetPageWithNextCursor() {
+        Customer first = getSampleCustomer(1L);
+        Customer second = getSampleCustomer(2L);
+        when(customerRepository.findCustomersAfter(eq("John"), any(), any(), eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(first, second));
+
+        CustomerListResponseDTO response = customerService.findCustomersAfter("John", null, null, null, 1);
+
+        assertThat(response.getCustomers()).hasSize(1);
+        assertThat(response.getNextCursor()).isEqualTo(PageCursor.encode(1L));
+        assertThat(response.getTotalItems()).isEqualTo(-1);
+        verify(customerRepository, never()).findCustomersByNameOrDateCreated(any(), any(), any(), any());
+    }
+
+    @Test
+    void findCustomersAfter_lastPage_hasNoNextCursor() {
+        when(customerRepository.findCustomersAfter(any(), any(), any(), eq(1L), eq(Limit.of(11))))
+                .thenReturn(List.of(getSampleCustomer(2L)));
+
+        CustomerListResponseDTO response = customerService.findCustomersAfter(null, null, null, PageCursor.encode(1L), 10);
+
+        assertThat(response.getCustomers()).hasSize(1);
+        assertThat(response.getNextCursor()).isNull();
+    }
+
+    @Test
+    void findCustomersAfter_invalidCursor_throwsException() {
+        assertThatThrownBy(() -> customerService.findCustomersAfter(null, null, null, "%%%", 10))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
     @Test
     void findById_existingId_returnsCustomer() {
         Customer customer = getSampleCustomer(1L);
@@ -0,0 +1,75 @@
+package com.dtb.loadtest.config;
+
+import com.dtb.loadtest.enums.Endpoint;
+import com.dtb.loadtest.enums.StubMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+    /* Measured run, after the warmup whose samples are discarded*/
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(15);
+    /* Workers (virtual threads on Java 21+), each keeps one request in flight*/
+    private int concurrency = 16;
+    /* Total requests per second over all workers, 0 runs closed loop (next request as soon as the previous returns).
+       With a rate latency is measured from the intended start, so a stalled service is not hidden by fewer requests*/
+    private double rate = 0;
+    /* Seeds the endpoint and id choices of every worker, the same seed replays the same request sequence per worker*/
+    private long seed = 42;
+    private int pageSize = 10;
+    /* Relative weights of the endpoints, endpoints without a weight are not called*/
+    private Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+    /* Sends cards-get and cards-by-account to the R2DBC lookups of /api/reactive/cards instead of /api/cards, and has
+       accounts-service hydrate its accounts through them (cards-service.read-path)*/
+    private boolean reactiveCardReads = false;
+    /* Where the csv summary, the .hgrm percentile distributions and the service logs are written*/
+    private String outputDir = "load-test/target/load-test";
+
+    private final Services services = new Services();
+    private final Dataset dataset = new Dataset();
+    private final CardsStub cardsStub = new CardsStub();
+
+    @Data
+    public static class Services {
+        /* false drives already running services on the ports below instead of booting them*/
+        private boolean boot = true;
+        /* Repository root, the services are started from <module>/target/*-exec.jar*/
+        private String rootDir = ".";
+        private String jvmArgs = "-Xmx512m";
+        /* Starts the services with spring.threads.virtual.enabled, they run on the java of the load test, so use Java 21
+           and services built with -Pjava21*/
+        private boolean virtualThreads = false;
+        /* false starts accounts-service without its card cache, so the account reads measure the card-service path*/
+        private boolean accountsCardCache = true;
+        private Duration startupTimeout = Duration.ofMinutes(3);
+        private int customersPort = 18081;
+        private int accountsPort = 18090;
+        private int cardsPort = 18080;
+    }
+
+    @Data
+    public static class Dataset {
+        /* Created through the bulk endpoints before the warmup, each account gets a PHYSICAL and a VIRTUAL card*/
+        private int customers = 1000;
+        private int accounts = 1000;
+    }
+
+    @Data
+    public static class CardsStub {
+        /* accounts-service calls card-service through the stub on this port*/
+        private int port = 18085;
+        private StubMode mode = StubMode.PROXY;
+        /* Added to every call, plus a uniformly random 0..latencyJitter*/
+        private Duration latency = Duration.ZERO;
+        private Duration latencyJitter = Duration.ZERO;
+        /* Share of calls (0..1) answered with failureStatus instead of being served*/
+        private double failureRate = 0;
+        private int failureStatus = 503;
+    }
+}
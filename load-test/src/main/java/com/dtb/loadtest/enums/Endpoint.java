@@ -0,0 +1,39 @@
+package com.dtb.loadtest.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/* One operation of the workload mix, weighted by loadtest.mix.<name> e.g. loadtest.mix.accounts-list=40*/
+@Getter
+@AllArgsConstructor
+public enum Endpoint {
+    CUSTOMERS_LIST(TargetService.CUSTOMERS, Operation.LIST),
+    CUSTOMERS_GET(TargetService.CUSTOMERS, Operation.GET),
+    CUSTOMERS_CREATE(TargetService.CUSTOMERS, Operation.CREATE),
+    CUSTOMERS_UPDATE(TargetService.CUSTOMERS, Operation.UPDATE),
+    CUSTOMERS_DELETE(TargetService.CUSTOMERS, Operation.DELETE),
+    ACCOUNTS_LIST(TargetService.ACCOUNTS, Operation.LIST),
+    ACCOUNTS_GET(TargetService.ACCOUNTS, Operation.GET),
+    ACCOUNTS_CREATE(TargetService.ACCOUNTS, Operation.CREATE),
+    ACCOUNTS_UPDATE(TargetService.ACCOUNTS, Operation.UPDATE),
+    ACCOUNTS_DELETE(TargetService.ACCOUNTS, Operation.DELETE),
+    CARDS_LIST(TargetService.CARDS, Operation.LIST),
+    CARDS_GET(TargetService.CARDS, Operation.GET),
+    CARDS_CREATE(TargetService.CARDS, Operation.CREATE),
+    CARDS_UPDATE(TargetService.CARDS, Operation.UPDATE),
+    CARDS_DELETE(TargetService.CARDS, Operation.DELETE),
+    /* The cards of an account from the accounts pool, the lookup behind every account view*/
+    CARDS_BY_ACCOUNT(TargetService.CARDS, Operation.BY_ACCOUNT);
+
+    private final TargetService service;
+    private final Operation operation;
+
+    public enum Operation {
+        LIST,
+        GET,
+        CREATE,
+        UPDATE,
+        DELETE,
+        BY_ACCOUNT
+    }
+}
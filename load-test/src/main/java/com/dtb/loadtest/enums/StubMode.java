@@ -0,0 +1,8 @@
+package com.dtb.loadtest.enums;
+
+public enum StubMode {
+    /* Forward to the booted card-service after the injected latency/failure*/
+    PROXY,
+    /* Answer with generated cards without touching card-service, isolates accounts-service from the cards database*/
+    CANNED
+}
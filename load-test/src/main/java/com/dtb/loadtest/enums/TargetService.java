@@ -0,0 +1,16 @@
+package com.dtb.loadtest.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum TargetService {
+    CUSTOMERS("customer-service", "/api/customers"),
+    ACCOUNTS("accounts-service", "/api/accounts"),
+    CARDS("card-service", "/api/cards");
+
+    /* Maven module, its target directory holds the *-exec.jar that is booted*/
+    private final String module;
+    private final String basePath;
+}
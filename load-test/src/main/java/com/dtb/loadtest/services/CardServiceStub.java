@@ -0,0 +1,181 @@
+package com.dtb.loadtest.services;
+
+import com.dtb.loadtest.config.LoadTestProperties;
+import com.dtb.loadtest.enums.StubMode;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for card-service as seen by accounts-service: every call is delayed by the configured latency and
+ * jitter and a share of them fails with the configured status. The rest is forwarded to the booted card-service
+ * (PROXY) or answered with two generated cards per account (CANNED).
+ */
+@Component
+@Slf4j
+public class CardServiceStub {
+    /* Under /api/cards or /api/reactive/cards, depending on accounts-service's cards-service.read-path*/
+    private static final Pattern CARDS_OF_ACCOUNT = Pattern.compile("/api(?:/reactive)?/cards/(\\d+)/accounts");
+    private static final Pattern BATCH = Pattern.compile("/api(?:/reactive)?/cards/accounts/batch");
+
+    private final LoadTestProperties.CardsStub settings;
+    private final String cardsUrl;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder injectedFailures = new LongAdder();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public CardServiceStub(LoadTestProperties properties, ObjectMapper objectMapper) {
+        this.settings = properties.getCardsStub();
+        this.cardsUrl = "http://localhost:" + properties.getServices().getCardsPort();
+        this.objectMapper = objectMapper;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", settings.getPort()), 0);
+        /* Unbounded so the injected latency delays calls without also queueing them behind each other*/
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("Card-service stub on port {} ({}, latency {} + 0..{}, failure rate {})", settings.getPort(),
+                settings.getMode(), settings.getLatency(), settings.getLatencyJitter(), settings.getFailureRate());
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getInjectedFailures() {
+        return injectedFailures.sum();
+    }
+
+    /* Called at the end of the warmup so the counters cover the measured run only*/
+    public void resetCounters() {
+        calls.reset();
+        injectedFailures.reset();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            calls.increment();
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delayNanos = settings.getLatency().toNanos();
+            if (!settings.getLatencyJitter().isZero()) {
+                delayNanos += random.nextLong(settings.getLatencyJitter().toNanos() + 1);
+            }
+            if (delayNanos > 0) {
+                Thread.sleep(Duration.ofNanos(delayNanos).toMillis(), (int) (delayNanos % 1_000_000));
+            }
+            if (settings.getFailureRate() > 0 && random.nextDouble() < settings.getFailureRate()) {
+                injectedFailures.increment();
+                exchange.sendResponseHeaders(settings.getFailureStatus(), -1);
+                return;
+            }
+            if (settings.getMode() == StubMode.CANNED) {
+                respond(exchange, 200, objectMapper.writeValueAsBytes(canned(exchange.getRequestURI().getPath(), requestBody)));
+            } else {
+                forward(exchange, requestBody);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Card-service stub failed to answer {}: {}", exchange.getRequestURI(), e.getMessage());
+            exchange.sendResponseHeaders(502, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void forward(HttpExchange exchange, byte[] requestBody) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(cardsUrl + exchange.getRequestURI()))
+                .method(exchange.getRequestMethod(), requestBody.length == 0
+                        ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(requestBody));
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+        HttpResponse<InputStream> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        response.headers().firstValue("Content-Type").ifPresent(value -> exchange.getResponseHeaders().set("Content-Type", value));
+        try (InputStream body = response.body()) {
+            respond(exchange, response.statusCode(), body.readAllBytes());
+        }
+    }
+
+    private Object canned(String path, byte[] requestBody) throws IOException {
+        Matcher cardsOfAccount = CARDS_OF_ACCOUNT.matcher(path);
+        if (cardsOfAccount.matches()) {
+            return cards(Long.parseLong(cardsOfAccount.group(1)));
+        }
+        if (BATCH.matcher(path).matches()) {
+            List<Long> accountIds = objectMapper.readValue(requestBody, new TypeReference<>() {});
+            Map<Long, List<Map<String, Object>>> cardsByAccount = new LinkedHashMap<>();
+            accountIds.forEach(accountId -> cardsByAccount.put(accountId, cards(accountId)));
+            return cardsByAccount;
+        }
+        /* Account ids by card alias, no alias matches a generated card*/
+        return List.of();
+    }
+
+    /* Same shape as card-service's masked CardDto*/
+    private static List<Map<String, Object>> cards(long accountId) {
+        return List.of(card(accountId * 2, accountId, "PHYSICAL"), card(accountId * 2 + 1, accountId, "VIRTUAL"));
+    }
+
+    private static Map<String, Object> card(long cardId, long accountId, String type) {
+        Map<String, Object> card = new LinkedHashMap<>();
+        card.put("id", cardId);
+        card.put("cardAlias", "Card " + cardId);
+        card.put("accountId", accountId);
+        card.put("type", type);
+        card.put("pan", String.format("****-****-****-%04d", cardId % 10_000));
+        card.put("cvv", "***");
+        return card;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (!exchange.getResponseHeaders().containsKey("Content-Type")) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
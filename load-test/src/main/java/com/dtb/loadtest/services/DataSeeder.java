@@ -0,0 +1,114 @@
+package com.dtb.loadtest.services;
+
+import com.dtb.loadtest.config.LoadTestProperties;
+import com.dtb.loadtest.enums.TargetService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/* Creates the starting data set through the public endpoints and fills the id pools the workload draws from*/
+@Component
+@Slf4j
+public class DataSeeder {
+    /* card-service rejects bulk requests above this*/
+    private static final int CARDS_PER_BULK_REQUEST = 5000;
+
+    private final LoadTestProperties properties;
+    private final ServiceLauncher serviceLauncher;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    public DataSeeder(LoadTestProperties properties, ServiceLauncher serviceLauncher, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.serviceLauncher = serviceLauncher;
+        this.objectMapper = objectMapper;
+    }
+
+    public void seed(Map<TargetService, IdPool> pools) throws IOException, InterruptedException {
+        seedCustomers(pools.get(TargetService.CUSTOMERS));
+        List<Long> accountIds = seedAccounts(pools.get(TargetService.ACCOUNTS));
+        seedCards(accountIds, pools.get(TargetService.CARDS));
+        log.info("Seeded {} customers, {} accounts, {} cards", pools.get(TargetService.CUSTOMERS).size(),
+                pools.get(TargetService.ACCOUNTS).size(), pools.get(TargetService.CARDS).size());
+    }
+
+    private void seedCustomers(IdPool customers) throws IOException, InterruptedException {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < properties.getDataset().getCustomers(); i++) {
+            ndjson.append(objectMapper.writeValueAsString(WorkloadDriver.customer("Seed", i))).append('\n');
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(serviceLauncher.baseUrl(TargetService.CUSTOMERS) + "/api/customers/bulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                JsonNode result = objectMapper.readTree(line);
+                if ("CREATED".equals(result.path("status").asText())) {
+                    customers.add(result.path("id").asLong());
+                }
+            }
+        }
+    }
+
+    private List<Long> seedAccounts(IdPool accounts) throws IOException, InterruptedException {
+        List<Long> accountIds = new ArrayList<>();
+        String url = serviceLauncher.baseUrl(TargetService.ACCOUNTS) + "/api/accounts";
+        for (int i = 0; i < properties.getDataset().getAccounts(); i++) {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(WorkloadDriver.account(i))))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding accounts failed with " + response.statusCode() + ": " + response.body());
+            }
+            long accountId = objectMapper.readTree(response.body()).path("id").asLong();
+            accounts.add(accountId);
+            accountIds.add(accountId);
+        }
+        return accountIds;
+    }
+
+    /* A PHYSICAL and a VIRTUAL card for every seeded account, the account limit is then reached*/
+    private void seedCards(List<Long> accountIds, IdPool cards) throws IOException, InterruptedException {
+        String url = serviceLauncher.baseUrl(TargetService.CARDS) + "/api/cards/bulk";
+        ArrayNode batch = objectMapper.createArrayNode();
+        for (int i = 0; i < accountIds.size(); i++) {
+            for (String type : new String[]{"PHYSICAL", "VIRTUAL"}) {
+                batch.add(WorkloadDriver.card(objectMapper, accountIds.get(i), type, i));
+            }
+            if (batch.size() >= CARDS_PER_BULK_REQUEST - 1 || i == accountIds.size() - 1) {
+                HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(batch)))
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Seeding cards failed with " + response.statusCode() + ": " + response.body());
+                }
+                for (JsonNode result : objectMapper.readTree(response.body()).path("results")) {
+                    if (result.hasNonNull("cardId")) {
+                        cards.add(result.path("cardId").asLong());
+                    }
+                }
+                batch = objectMapper.createArrayNode();
+            }
+        }
+    }
+}
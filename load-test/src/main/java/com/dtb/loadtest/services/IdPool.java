@@ -0,0 +1,34 @@
+package com.dtb.loadtest.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/* Ids that exist in one service, get/update pick from it, create adds and delete takes one out so no id is deleted twice*/
+class IdPool {
+    private final List<Long> ids = new ArrayList<>();
+
+    synchronized void add(long id) {
+        ids.add(id);
+    }
+
+    synchronized int size() {
+        return ids.size();
+    }
+
+    /* -1 when the pool is empty*/
+    synchronized long pick(SplittableRandom random) {
+        return ids.isEmpty() ? -1 : ids.get(random.nextInt(ids.size()));
+    }
+
+    synchronized long take(SplittableRandom random) {
+        if (ids.isEmpty()) {
+            return -1;
+        }
+        int index = random.nextInt(ids.size());
+        long id = ids.get(index);
+        ids.set(index, ids.get(ids.size() - 1));
+        ids.remove(ids.size() - 1);
+        return id;
+    }
+}
@@ -0,0 +1,109 @@
+package com.dtb.loadtest.services;
+
+import com.dtb.loadtest.config.LoadTestProperties;
+import com.dtb.loadtest.enums.Endpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms (microseconds, 3 significant digits) and error counts per endpoint. Samples recorded
+ * before {@link #startMeasurement()} are the warmup and are dropped.
+ */
+@Component
+@Slf4j
+public class LatencyReport {
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadTestProperties properties;
+    private final CardServiceStub cardServiceStub;
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private long measurementStart;
+
+    public LatencyReport(LoadTestProperties properties, CardServiceStub cardServiceStub) {
+        this.properties = properties;
+        this.cardServiceStub = cardServiceStub;
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new Recorder(3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    /* Errors are recorded too, a fast 503 is a latency sample the caller did see*/
+    public void record(Endpoint endpoint, long latencyNanos, boolean success) {
+        recorders.get(endpoint).recordValue(Math.max(1, latencyNanos / 1000));
+        if (!success) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    public void startMeasurement() {
+        recorders.values().forEach(Recorder::getIntervalHistogram);
+        errors.values().forEach(LongAdder::reset);
+        cardServiceStub.resetCounters();
+        measurementStart = System.nanoTime();
+    }
+
+    /* Prints the per endpoint table and writes summary.csv and one <endpoint>.hgrm percentile distribution per endpoint*/
+    public void finish() throws IOException {
+        double seconds = (System.nanoTime() - measurementStart) / 1e9;
+        Path outputDir = Path.of(properties.getOutputDir());
+        Files.createDirectories(outputDir);
+
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        StringBuilder table = new StringBuilder(String.format("%n%-18s %10s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        StringBuilder csv = new StringBuilder("endpoint,requests,requests_per_second,errors,p50_ms,p99_ms,p999_ms,max_ms\n");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = recorders.get(endpoint).getIntervalHistogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            long endpointErrors = errors.get(endpoint).sum();
+            all.add(histogram);
+            allErrors += endpointErrors;
+            appendRow(table, csv, endpoint.name().toLowerCase(), histogram, endpointErrors, seconds);
+            writeDistribution(outputDir.resolve(endpoint.name().toLowerCase() + ".hgrm"), histogram);
+        }
+        appendRow(table, csv, "all", all, allErrors, seconds);
+        writeDistribution(outputDir.resolve("all.hgrm"), all);
+        Files.writeString(outputDir.resolve("summary.csv"), csv);
+
+        table.append(String.format("%ncard-service stub: %d calls, %d injected failures%n",
+                cardServiceStub.getCalls(), cardServiceStub.getInjectedFailures()));
+        log.info("Measured {}s with {} workers{}:{}", Math.round(seconds), properties.getConcurrency(),
+                properties.getRate() > 0 ? " at " + properties.getRate() + " req/s" : " (closed loop)", table);
+        log.info("Wrote summary.csv and percentile distributions to {}", outputDir.toAbsolutePath());
+    }
+
+    private static void appendRow(StringBuilder table, StringBuilder csv, String name, Histogram histogram,
+                                  long errorCount, double seconds) {
+        long requests = histogram.getTotalCount();
+        double p50 = histogram.getValueAtPercentile(50) / MICROS_PER_MILLI;
+        double p99 = histogram.getValueAtPercentile(99) / MICROS_PER_MILLI;
+        double p999 = histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI;
+        double max = histogram.getMaxValue() / MICROS_PER_MILLI;
+        table.append(String.format("%-18s %10d %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+                name, requests, requests / seconds, errorCount, p50, p99, p999, max));
+        csv.append(String.format(Locale.ROOT, "%s,%d,%.1f,%d,%.3f,%.3f,%.3f,%.3f%n",
+                name, requests, requests / seconds, errorCount, p50, p99, p999, max));
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.dtb.loadtest.services;
+
+import com.dtb.loadtest.enums.TargetService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/* stub -> services -> seed data -> warmup + measured run -> report, the services are stopped when the context closes*/
+@Component
+@Slf4j
+public class LoadTestRunner implements CommandLineRunner {
+    private final CardServiceStub cardServiceStub;
+    private final ServiceLauncher serviceLauncher;
+    private final DataSeeder dataSeeder;
+    private final WorkloadDriver workloadDriver;
+
+    public LoadTestRunner(CardServiceStub cardServiceStub, ServiceLauncher serviceLauncher, DataSeeder dataSeeder,
+                          WorkloadDriver workloadDriver) {
+        this.cardServiceStub = cardServiceStub;
+        this.serviceLauncher = serviceLauncher;
+        this.dataSeeder = dataSeeder;
+        this.workloadDriver = workloadDriver;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        cardServiceStub.start();
+        serviceLauncher.start();
+
+        Map<TargetService, IdPool> pools = new EnumMap<>(TargetService.class);
+        for (TargetService service : TargetService.values()) {
+            pools.put(service, new IdPool());
+        }
+        dataSeeder.seed(pools);
+        workloadDriver.run(pools);
+    }
+}
@@ -0,0 +1,167 @@
+package com.dtb.loadtest.services;
+
+import com.dtb.loadtest.config.LoadTestProperties;
+import com.dtb.loadtest.enums.TargetService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Boots every service from its executable jar as a separate JVM on an in-memory H2 database, so the services
+ * talk to each other over HTTP exactly as deployed. accounts-service is pointed at the card-service stub.
+ */
+@Component
+@Slf4j
+public class ServiceLauncher {
+    private final LoadTestProperties properties;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final Map<TargetService, Process> processes = new EnumMap<>(TargetService.class);
+
+    public ServiceLauncher(LoadTestProperties properties) {
+        this.properties = properties;
+    }
+
+    public String baseUrl(TargetService service) {
+        return "http://localhost:" + port(service);
+    }
+
+    private int port(TargetService service) {
+        LoadTestProperties.Services services = properties.getServices();
+        return switch (service) {
+            case CUSTOMERS -> services.getCustomersPort();
+            case ACCOUNTS -> services.getAccountsPort();
+            case CARDS -> services.getCardsPort();
+        };
+    }
+
+    /* Starts the services that are not already running and waits until each answers its list endpoint*/
+    public void start() throws IOException, InterruptedException {
+        Files.createDirectories(Path.of(properties.getOutputDir()));
+        if (properties.getServices().isBoot()) {
+            /* card-service first, accounts-service reads cards (through the stub) as soon as it serves requests*/
+            for (TargetService service : List.of(TargetService.CARDS, TargetService.CUSTOMERS, TargetService.ACCOUNTS)) {
+                processes.put(service, launch(service));
+            }
+        }
+        for (TargetService service : TargetService.values()) {
+            awaitReady(service);
+        }
+    }
+
+    private Process launch(TargetService service) throws IOException {
+        Path jar = findJar(service);
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(properties.getServices().getJvmArgs().trim().split("\\s+")));
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port(service));
+        command.add("--spring.datasource.url=jdbc:h2:mem:" + service.name().toLowerCase() + ";DB_CLOSE_DELAY=-1");
+        command.add("--spring.datasource.driverClassName=org.h2.Driver");
+        command.add("--spring.datasource.username=sa");
+        command.add("--spring.datasource.password=");
+        command.add("--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+        command.add("--spring.jpa.show-sql=false");
+        command.add("--spring.threads.virtual.enabled=" + properties.getServices().isVirtualThreads());
+        /* Every worker holds a connection, Tomcat's default of 8192 would refuse the rest at 10k clients*/
+        command.add("--server.tomcat.max-connections=" + Math.max(8192, properties.getConcurrency() + 1024));
+        if (service == TargetService.ACCOUNTS) {
+            command.add("--cards-service.url=http://localhost:" + properties.getCardsStub().getPort());
+            if (properties.isReactiveCardReads()) {
+                command.add("--cards-service.read-path=/api/reactive/cards");
+            }
+            if (!properties.getServices().isAccountsCardCache()) {
+                /* Every account read then looks its cards up in card-service*/
+                command.add("--cards-service.cache.maximum-size=0");
+            }
+        }
+        if (service == TargetService.CARDS) {
+            command.add("--accounts-service.url=" + baseUrl(TargetService.ACCOUNTS));
+            /* The reactive read path, on the same in-memory database*/
+            command.add("--spring.r2dbc.url=r2dbc:h2:mem:///cards;DB_CLOSE_DELAY=-1");
+            command.add("--spring.r2dbc.username=sa");
+            command.add("--spring.r2dbc.password=");
+        }
+
+        Path logFile = Path.of(properties.getOutputDir()).resolve(service.getModule() + ".log");
+        log.info("Starting {} on port {} from {} ({} threads), log in {}", service.getModule(), port(service), jar,
+                properties.getServices().isVirtualThreads() ? "virtual" : "platform", logFile);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+    }
+
+    private Path findJar(TargetService service) throws IOException {
+        Path target = Path.of(properties.getServices().getRootDir()).resolve(service.getModule()).resolve("target");
+        if (Files.isDirectory(target)) {
+            try (Stream<Path> files = Files.list(target)) {
+                Path jar = files.filter(file -> file.getFileName().toString().endsWith("-exec.jar")).findFirst().orElse(null);
+                if (jar != null) {
+                    return jar;
+                }
+            }
+        }
+        throw new IllegalStateException("No executable jar in " + target.toAbsolutePath()
+                + ", build the services first (mvn package -DskipTests) or set loadtest.services.root-dir");
+    }
+
+    private void awaitReady(TargetService service) throws InterruptedException {
+        URI uri = URI.create(baseUrl(service) + service.getBasePath() + "?size=1");
+        long deadline = System.nanoTime() + properties.getServices().getStartupTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            Process process = processes.get(service);
+            if (process != null && !process.isAlive()) {
+                throw new IllegalStateException(service.getModule() + " exited with " + process.exitValue()
+                        + ", see " + Path.of(properties.getOutputDir()).resolve(service.getModule() + ".log"));
+            }
+            try {
+                HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    log.info("{} is up", service.getModule());
+                    return;
+                }
+            } catch (IOException e) {
+                /* Not listening yet*/
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(service.getModule() + " did not answer " + uri + " within "
+                + properties.getServices().getStartupTimeout());
+    }
+
+    @PreDestroy
+    public void stop() {
+        processes.forEach((service, process) -> {
+            log.info("Stopping {}", service.getModule());
+            process.destroy();
+        });
+        processes.values().forEach(process -> {
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        });
+        processes.clear();
+    }
+}
@@ -0,0 +1,243 @@
+package com.dtb.loadtest.services;
+
+import com.dtb.loadtest.config.LoadTestProperties;
+import com.dtb.loadtest.enums.Endpoint;
+import com.dtb.loadtest.enums.TargetService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the configured number of workers, each picking endpoints by the mix weights and ids from the pools
+ * with its own random generator split from loadtest.seed.
+ */
+@Component
+@Slf4j
+public class WorkloadDriver {
+    /* Card-service allows two cards per account, new cards go to accounts starting here so they never hit the limit*/
+    private static final long FIRST_CARD_ONLY_ACCOUNT_ID = 1_000_000_000L;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestProperties properties;
+    private final ServiceLauncher serviceLauncher;
+    private final LatencyReport latencyReport;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    /* Makes names, IBANs and PANs of created rows unique, seeded rows use 0..n*/
+    private final AtomicLong sequence = new AtomicLong(1_000_000);
+    private final AtomicLong cardOnlyAccountIds = new AtomicLong(FIRST_CARD_ONLY_ACCOUNT_ID);
+
+    private Map<TargetService, IdPool> pools;
+    private Endpoint[] endpoints;
+    private int[] cumulativeWeights;
+
+    public WorkloadDriver(LoadTestProperties properties, ServiceLauncher serviceLauncher, LatencyReport latencyReport,
+                          ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.serviceLauncher = serviceLauncher;
+        this.latencyReport = latencyReport;
+        this.objectMapper = objectMapper;
+    }
+
+    public void run(Map<TargetService, IdPool> pools) throws InterruptedException, IOException {
+        this.pools = pools;
+        buildMix();
+        long start = System.nanoTime();
+        long end = start + properties.getWarmup().toNanos() + properties.getDuration().toNanos();
+        SplittableRandom seeds = new SplittableRandom(properties.getSeed());
+        ThreadFactory workerFactory = workerFactory();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < properties.getConcurrency(); i++) {
+            SplittableRandom random = seeds.split();
+            Thread worker = workerFactory.newThread(() -> work(random, start, end));
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Warming up for {}", properties.getWarmup());
+        TimeUnit.NANOSECONDS.sleep(properties.getWarmup().toNanos());
+        latencyReport.startMeasurement();
+        log.info("Measuring for {}", properties.getDuration());
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        latencyReport.finish();
+    }
+
+    /* Thousands of platform threads would make the load generator the bottleneck, so workers are virtual where possible*/
+    private static ThreadFactory workerFactory() {
+        if (Runtime.version().feature() >= 21) {
+            return new VirtualThreadTaskExecutor("load-worker-").getVirtualThreadFactory();
+        }
+        log.info("Running on Java {}, workers are platform threads", Runtime.version().feature());
+        AtomicLong ids = new AtomicLong();
+        return task -> new Thread(task, "load-worker-" + ids.getAndIncrement());
+    }
+
+    private void buildMix() {
+        List<Endpoint> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            int weight = properties.getMix().getOrDefault(endpoint, 0);
+            if (weight > 0) {
+                total += weight;
+                weighted.add(endpoint);
+                cumulative.add(total);
+            }
+        }
+        if (weighted.isEmpty()) {
+            throw new IllegalStateException("No endpoint has a weight, set loadtest.mix.<endpoint>=<weight>");
+        }
+        endpoints = weighted.toArray(new Endpoint[0]);
+        cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private Endpoint nextEndpoint(SplittableRandom random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    private void work(SplittableRandom random, long start, long end) {
+        long interval = properties.getRate() > 0 ? (long) (properties.getConcurrency() * 1e9 / properties.getRate()) : 0;
+        long next = start + (interval > 0 ? random.nextLong(interval) : 0);
+        while (true) {
+            long intendedStart;
+            if (interval > 0) {
+                while (System.nanoTime() < next) {
+                    LockSupport.parkNanos(next - System.nanoTime());
+                }
+                intendedStart = next;
+                next += interval;
+            } else {
+                intendedStart = System.nanoTime();
+            }
+            if (intendedStart >= end) {
+                return;
+            }
+            Endpoint endpoint = nextEndpoint(random);
+            Boolean success;
+            try {
+                success = call(endpoint, random);
+            } catch (IOException e) {
+                success = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (success != null) {
+                latencyReport.record(endpoint, System.nanoTime() - intendedStart, success);
+            }
+        }
+    }
+
+    /* null when the call was skipped because the pool it needs an id from is empty*/
+    private Boolean call(Endpoint endpoint, SplittableRandom random) throws IOException, InterruptedException {
+        TargetService service = endpoint.getService();
+        IdPool pool = pools.get(service);
+        String url = serviceLauncher.baseUrl(service) + service.getBasePath();
+        long n = sequence.getAndIncrement();
+        switch (endpoint.getOperation()) {
+            case LIST -> {
+                int pages = Math.max(1, pool.size() / properties.getPageSize());
+                return send(HttpRequest.newBuilder(URI.create(url + "?page=" + random.nextInt(pages)
+                        + "&size=" + properties.getPageSize())).GET(), null) != null;
+            }
+            case GET -> {
+                long id = pool.pick(random);
+                return id < 0 ? null : send(HttpRequest.newBuilder(URI.create(readUrl(service, url) + "/" + id)).GET(), null) != null;
+            }
+            case BY_ACCOUNT -> {
+                long accountId = pools.get(TargetService.ACCOUNTS).pick(random);
+                return accountId < 0 ? null : send(HttpRequest.newBuilder(
+                        URI.create(readUrl(service, url) + "/" + accountId + "/accounts")).GET(), null) != null;
+            }
+            case CREATE -> {
+                String body = objectMapper.writeValueAsString(switch (service) {
+                    case CUSTOMERS -> customer("Load", n);
+                    case ACCOUNTS -> account(n);
+                    case CARDS -> card(objectMapper, cardOnlyAccountIds.getAndIncrement(), "PHYSICAL", n);
+                });
+                String created = send(HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.ofString(body)), "application/json");
+                if (created == null) {
+                    return false;
+                }
+                pool.add(objectMapper.readTree(created).path("id").asLong());
+                return true;
+            }
+            case UPDATE -> {
+                long id = pool.pick(random);
+                if (id < 0) {
+                    return null;
+                }
+                HttpRequest.Builder request = switch (service) {
+                    case CUSTOMERS -> HttpRequest.newBuilder(URI.create(url + "/" + id)).PUT(HttpRequest.BodyPublishers.ofString(
+                            objectMapper.writeValueAsString(Map.of("otherName", "Updated" + n))));
+                    case ACCOUNTS -> HttpRequest.newBuilder(URI.create(url + "/" + id)).PUT(HttpRequest.BodyPublishers.ofString(
+                            objectMapper.writeValueAsString(account(n))));
+                    case CARDS -> HttpRequest.newBuilder(URI.create(url + "/" + id + "/alias")).PUT(HttpRequest.BodyPublishers.ofString(
+                            "Alias " + n));
+                };
+                return send(request, service == TargetService.CARDS ? "text/plain" : "application/json") != null;
+            }
+            case DELETE -> {
+                long id = pool.take(random);
+                return id < 0 ? null : send(HttpRequest.newBuilder(URI.create(url + "/" + id)).DELETE(), null) != null;
+            }
+            default -> throw new IllegalStateException("Unknown operation " + endpoint.getOperation());
+        }
+    }
+
+    private String readUrl(TargetService service, String url) {
+        return service == TargetService.CARDS && properties.isReactiveCardReads()
+                ? serviceLauncher.baseUrl(service) + "/api/reactive/cards" : url;
+    }
+
+    /* Response body of a 2xx response, null otherwise*/
+    private String send(HttpRequest.Builder request, String contentType) throws IOException, InterruptedException {
+        request.timeout(REQUEST_TIMEOUT);
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() / 100 == 2 ? response.body() : null;
+    }
+
+    static Map<String, Object> customer(String prefix, long n) {
+        return Map.of("firstName", prefix + "First" + n, "lastName", prefix + "Last" + n, "otherName", "Other" + n);
+    }
+
+    static Map<String, Object> account(long n) {
+        return Map.of("customerId", String.valueOf(n + 1), "iban", String.format("KE%020d", n), "bicSwift", "DTBKKENA");
+    }
+
+    static ObjectNode card(ObjectMapper objectMapper, long accountId, String type, long n) {
+        return objectMapper.createObjectNode()
+                .put("cardAlias", "Card " + n)
+                .put("accountId", accountId)
+                .put("type", type)
+                .put("pan", String.format("4%015d", n * 2 + ("PHYSICAL".equals(type) ? 0 : 1)))
+                .put("cvv", String.format("%03d", n % 1000));
+    }
+}
@@ -0,0 +1,25 @@
+package com.dtb.common.config;
+
+import com.dtb.common.repository.RowCountEstimator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+/* Approximate totals for the table a service names in pagination.approximate-count.table, refreshed by its scheduler*/
+@AutoConfiguration(after = JdbcTemplateAutoConfiguration.class)
+@ConditionalOnProperty("pagination.approximate-count.table")
+public class RowCountEstimatorAutoConfiguration {
+    @Bean
+    @ConditionalOnMissingBean
+    public RowCountEstimator rowCountEstimator(JdbcTemplate jdbcTemplate,
+                                               @Value("${pagination.approximate-count.table}") String table,
+                                               @Value("${pagination.approximate-count.max-staleness:PT5M}") Duration maxStaleness) {
+        return new RowCountEstimator(jdbcTemplate, table, maxStaleness);
+    }
+}
@@ -0,0 +1,61 @@
+package com.dtb.common.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+/* Slow-query detection of the services that have datasource-proxy on the classpath, off with slow-query.enabled=false*/
+@AutoConfiguration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+@ConditionalOnClass({ProxyDataSource.class, Endpoint.class})
+@ConditionalOnProperty(name = "slow-query.enabled", matchIfMissing = true)
+public class SlowQueryAutoConfiguration {
+    /**
+     * Routes the DataSource through datasource-proxy so every statement is timed by the SlowQueryListener, and
+     * has the repositories expose the method being invoked so statements are attributed to it. Static because
+     * post processors are created before the other beans, the recorder is looked up when the DataSource is ready.
+     */
+    @Bean
+    public static BeanPostProcessor slowQueryPostProcessor(ObjectProvider<SlowQueryRecorder> recorder,
+                                                           ObjectProvider<SlowQueryProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.setExposeMetadata(true);
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(new SlowQueryListener(recorder.getObject(), properties.getObject(), dataSource))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SlowQueryRecorder slowQueryRecorder(SlowQueryProperties properties) {
+        return new SlowQueryRecorder(properties);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryRecorder recorder) {
+        return new SlowQueryEndpoint(recorder);
+    }
+}
@@ -0,0 +1,26 @@
+package com.dtb.common.config;
+
+import com.dtb.common.dtos.SlowQueryReportDto;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/* GET /actuator/slowqueries for the statistics since start or the last DELETE, which clears them*/
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+    private final SlowQueryRecorder recorder;
+
+    public SlowQueryEndpoint(SlowQueryRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public SlowQueryReportDto slowQueries() {
+        return recorder.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        recorder.reset();
+    }
+}
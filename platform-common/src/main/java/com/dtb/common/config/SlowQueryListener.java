@@ -0,0 +1,132 @@
+package com.dtb.common.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.data.repository.core.RepositoryMethodContext;
+import org.springframework.data.repository.core.RepositoryMethodContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+/**
+ * Hands every statement run through the proxied DataSource to the SlowQueryRecorder. Slow SELECTs of repository
+ * methods on Postgres come with an EXPLAIN (ANALYZE, BUFFERS) of the same statement and parameters, run on a
+ * separate connection of the unproxied DataSource in a read-only transaction that is rolled back.
+ */
+class SlowQueryListener implements QueryExecutionListener {
+    /* A character class rather than a repeated group, java.util.regex recurses per group repetition and a few
+       thousand bind parameters overflow the stack*/
+    private static final Pattern IN_LIST = Pattern.compile("(?i)(\\bin\\s*)\\(\\s*\\?[\\s?,]*\\)");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private final SlowQueryRecorder recorder;
+    private final SlowQueryProperties properties;
+    private final DataSource dataSource;
+    private volatile Boolean postgres;
+
+    SlowQueryListener(SlowQueryRecorder recorder, SlowQueryProperties properties, DataSource dataSource) {
+        this.recorder = recorder;
+        this.properties = properties;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String repositoryMethod = repositoryMethod();
+        long elapsedMillis = execInfo.getElapsedTime();
+        boolean explainable = repositoryMethod != null && recorder.isSlow(elapsedMillis) && !execInfo.isBatch()
+                && isPostgres(execInfo);
+        for (QueryInfo query : queryInfoList) {
+            String sql = query.getQuery();
+            List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                    ? List.of() : List.copyOf(query.getParametersList().get(0));
+            Callable<String> explain = explainable && isSelect(sql) ? () -> explain(sql, parameters) : null;
+            recorder.record(repositoryMethod, normalize(sql), nullParameters(parameters), elapsedMillis, explain);
+        }
+    }
+
+    /* Exposed by the repository proxies, see SlowQueryAutoConfiguration. getContext() throws outside a repository call,
+       setContext hands back the current one without the exception*/
+    private static String repositoryMethod() {
+        RepositoryMethodContext context = RepositoryMethodContextHolder.setContext(null);
+        RepositoryMethodContextHolder.setContext(context);
+        if (context == null) {
+            return null;
+        }
+        return context.getMetadata().getRepositoryInterface().getSimpleName() + "." + context.getMethod().getName();
+    }
+
+    static String normalize(String sql) {
+        return IN_LIST.matcher(sql).replaceAll("$1(?, ...)");
+    }
+
+    static List<Integer> nullParameters(List<ParameterSetOperation> parameters) {
+        return parameters.stream()
+                .filter(parameter -> parameter.getArgs().length > 0 && parameter.getArgs()[0] instanceof Integer)
+                .filter(parameter -> ParameterSetOperation.isSetNullParameterOperation(parameter)
+                        || parameter.getArgs().length > 1 && parameter.getArgs()[1] == null)
+                .map(parameter -> (Integer) parameter.getArgs()[0])
+                .sorted()
+                .toList();
+    }
+
+    private static boolean isSelect(String sql) {
+        String trimmed = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return trimmed.startsWith("select") || trimmed.startsWith("with");
+    }
+
+    private boolean isPostgres(ExecutionInfo execInfo) {
+        Boolean known = postgres;
+        if (known == null) {
+            try {
+                known = "PostgreSQL".equals(execInfo.getStatement().getConnection().getMetaData().getDatabaseProductName());
+            } catch (SQLException e) {
+                return false;
+            }
+            postgres = known;
+        }
+        return known;
+    }
+
+    private String explain(String sql, List<ParameterSetOperation> parameters) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    /* ANALYZE runs the statement, a read-only transaction stops functions like nextval from having effects*/
+                    statement.execute("SET TRANSACTION READ ONLY");
+                    statement.execute("SET LOCAL statement_timeout = " + properties.getExplainTimeout().toMillis());
+                }
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                    for (ParameterSetOperation parameter : parameters) {
+                        parameter.getMethod().invoke(statement, parameter.getArgs());
+                    }
+                    try (ResultSet rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            plan.append(rows.getString(1)).append('\n');
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+        /* Filter conditions in the plan carry the bound values, which may be PANs or names*/
+        return STRING_LITERAL.matcher(plan).replaceAll("'?'");
+    }
+}
@@ -0,0 +1,21 @@
+package com.dtb.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "slow-query")
+public class SlowQueryProperties {
+    /* Statements taking at least this long are counted as slow*/
+    private Duration threshold = Duration.ofMillis(200);
+    /* Share of the slow executions whose plan is captured with EXPLAIN (ANALYZE, BUFFERS), Postgres only*/
+    private double explainSampleRate = 0.1;
+    /* Minimum time before the plan of the same statement is captured again*/
+    private Duration explainInterval = Duration.ofMinutes(1);
+    /* statement_timeout of the EXPLAIN ANALYZE, which runs the statement once more*/
+    private Duration explainTimeout = Duration.ofSeconds(10);
+    /* Distinct statements kept, executions of further ones are only counted as untracked*/
+    private int maxStatements = 500;
+}
@@ -0,0 +1,138 @@
+package com.dtb.common.config;
+
+import com.dtb.common.dtos.SlowQueryDto;
+import com.dtb.common.dtos.SlowQueryReportDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency per statement, grouped by the repository method that ran it and by which parameters were bound
+ * to null, so the optional filter combinations of one query show up separately. Slow executions are
+ * sampled for a query plan, captured one at a time off the request thread. Read through /actuator/slowqueries.
+ */
+@Slf4j
+public class SlowQueryRecorder implements DisposableBean {
+    private final SlowQueryProperties properties;
+    private final ConcurrentMap<StatementKey, Statistics> statistics = new ConcurrentHashMap<>();
+    private final LongAdder untrackedExecutions = new LongAdder();
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryRecorder(SlowQueryProperties properties) {
+        this.properties = properties;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("slow-query-explain-");
+        threadFactory.setDaemon(true);
+        /* A few plans may wait, further ones are skipped rather than piling up EXPLAIN ANALYZE runs*/
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(8), threadFactory);
+    }
+
+    public boolean isSlow(long elapsedMillis) {
+        return elapsedMillis >= properties.getThreshold().toMillis();
+    }
+
+    /* explain is only given for slow statements it can be run for, it is called when this execution is sampled*/
+    public void record(String repositoryMethod, String sql, List<Integer> nullParameters, long elapsedMillis,
+                       Callable<String> explain) {
+        StatementKey key = new StatementKey(repositoryMethod, sql, nullParameters);
+        Statistics stats = statistics.get(key);
+        if (stats == null) {
+            if (statistics.size() >= properties.getMaxStatements()) {
+                untrackedExecutions.increment();
+                return;
+            }
+            stats = statistics.computeIfAbsent(key, k -> new Statistics());
+        }
+        stats.executions.increment();
+        stats.totalMillis.add(elapsedMillis);
+        stats.maxMillis.accumulateAndGet(elapsedMillis, Math::max);
+        if (!isSlow(elapsedMillis)) {
+            return;
+        }
+        stats.slowExecutions.increment();
+        stats.lastSlowAt = Instant.now();
+        if (explain != null && stats.planDue() && ThreadLocalRandom.current().nextDouble() < properties.getExplainSampleRate()
+                && stats.planPending.compareAndSet(false, true)) {
+            capturePlan(key, stats, explain);
+        }
+    }
+
+    private void capturePlan(StatementKey key, Statistics stats, Callable<String> explain) {
+        try {
+            explainExecutor.execute(() -> {
+                try {
+                    stats.plan = explain.call();
+                } catch (Exception e) {
+                    log.debug("Could not capture the plan of {}", key.sql(), e);
+                    stats.plan = "EXPLAIN failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                } finally {
+                    /* Also after a failure, so a statement that cannot be explained is not retried on every execution*/
+                    stats.planCapturedAt = Instant.now();
+                    stats.planPending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stats.planPending.set(false);
+        }
+    }
+
+    public SlowQueryReportDto report() {
+        List<SlowQueryDto> statements = statistics.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .sorted(Comparator.comparingLong(SlowQueryDto::getSlowExecutions)
+                        .thenComparingLong(SlowQueryDto::getTotalMillis).reversed())
+                .toList();
+        return new SlowQueryReportDto(properties.getThreshold().toMillis(), untrackedExecutions.sum(), statements);
+    }
+
+    public void reset() {
+        statistics.clear();
+        untrackedExecutions.reset();
+    }
+
+    @Override
+    public void destroy() {
+        explainExecutor.shutdownNow();
+    }
+
+    private record StatementKey(String repositoryMethod, String sql, List<Integer> nullParameters) {
+    }
+
+    private final class Statistics {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder slowExecutions = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private final AtomicBoolean planPending = new AtomicBoolean();
+        private volatile Instant lastSlowAt;
+        private volatile String plan;
+        private volatile Instant planCapturedAt;
+
+        boolean planDue() {
+            Instant capturedAt = planCapturedAt;
+            return capturedAt == null || capturedAt.plus(properties.getExplainInterval()).isBefore(Instant.now());
+        }
+
+        SlowQueryDto toDto(StatementKey key) {
+            long count = executions.sum();
+            long total = totalMillis.sum();
+            return new SlowQueryDto(key.repositoryMethod(), key.sql(), key.nullParameters(), count, slowExecutions.sum(),
+                    total, count == 0 ? 0 : (double) total / count, maxMillis.get(), lastSlowAt, plan, planCapturedAt);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.dtb.common.config;
+
+import com.dtb.common.tracing.RepositoryTracingInterceptor;
+import com.dtb.common.tracing.SpanFileExporter;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import java.nio.file.Path;
+
+/* Repository spans and the local span file of the services that trace (micrometer-tracing-bridge-otel on the classpath)*/
+@AutoConfiguration
+@ConditionalOnClass({Tracer.class, SpanExporter.class})
+public class TracingAutoConfiguration {
+    /**
+     * Adds a span named Repository.method around every Spring Data repository call, so a trace shows
+     * the time spent in each query of a request. Static because post processors are
+     * created before the other beans, the tracer is looked up on first use.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryTracingPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repository) -> {
+                                /* A reactive repository returns before its query runs, the span would not cover it*/
+                                if (!ReactiveCrudRepository.class.isAssignableFrom(repository.getRepositoryInterface())) {
+                                    proxyFactory.addAdvice(new RepositoryTracingInterceptor(
+                                            () -> tracer.getIfAvailable(() -> Tracer.NOOP),
+                                            repository.getRepositoryInterface().getSimpleName()));
+                                }
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /* Local collector, picked up next to the OTLP exporter: every finished span as one JSON line*/
+    @Bean
+    @ConditionalOnProperty("tracing.file.path")
+    public SpanFileExporter spanFileExporter(@Value("${tracing.file.path}") String path) {
+        return new SpanFileExporter(Path.of(path));
+    }
+}
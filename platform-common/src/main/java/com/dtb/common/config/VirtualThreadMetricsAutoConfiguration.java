@@ -0,0 +1,30 @@
+package com.dtb.common.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.util.ClassUtils;
+
+/* Compiled with the rest for Java 17, micrometer-java21 is only on the classpath of a java21 profile build and is
+   looked up by name once virtual threads are on*/
+@AutoConfiguration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnClass(name = VirtualThreadMetricsAutoConfiguration.VIRTUAL_THREAD_METRICS)
+public class VirtualThreadMetricsAutoConfiguration {
+    static final String VIRTUAL_THREAD_METRICS = "io.micrometer.java21.instrument.binder.jdk.VirtualThreadMetrics";
+
+    /**
+     * Streams the JFR pinning events into jvm.threads.virtual.pinned: a virtual thread that blocked for more
+     * than 20ms while holding a monitor (synchronized) or inside native code, so its carrier thread could not
+     * run other virtual threads. Failed virtual thread starts are counted as jvm.threads.virtual.submit.failed.
+     */
+    @Bean
+    public MeterBinder virtualThreadMetrics() throws ClassNotFoundException {
+        Class<?> metrics = ClassUtils.forName(VIRTUAL_THREAD_METRICS, getClass().getClassLoader());
+        return (MeterBinder) BeanUtils.instantiateClass(metrics);
+    }
+}
@@ -0,0 +1,20 @@
+package com.dtb.common.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/* Last record of an export. The response status is sent before the first row, this tells a complete export from one cut short*/
+@Data
+public class ExportSummaryDto {
+    private Status status = Status.COMPLETE;
+    /* Rows written before this record*/
+    private long exported;
+    /* Why the export stopped, only when FAILED*/
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    public enum Status {
+        COMPLETE,
+        FAILED
+    }
+}
@@ -0,0 +1,33 @@
+package com.dtb.common.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowQueryDto {
+    /* Repository.method that ran the statement, null for statements issued outside a repository*/
+    private String repositoryMethod;
+    /* IN lists are collapsed to (?, ...) so every list size adds up to one statement*/
+    private String sql;
+    /* 1-based positions of the parameters bound to null, i.e. the optional filters left out*/
+    private List<Integer> nullParameters;
+    private long executions;
+    private long slowExecutions;
+    private long totalMillis;
+    private double meanMillis;
+    private long maxMillis;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Instant lastSlowAt;
+    /* EXPLAIN (ANALYZE, BUFFERS) of a sampled slow execution, string literals replaced by '?'*/
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String plan;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Instant planCapturedAt;
+}
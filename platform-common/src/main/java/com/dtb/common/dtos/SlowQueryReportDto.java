@@ -0,0 +1,18 @@
+package com.dtb.common.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowQueryReportDto {
+    private long thresholdMillis;
+    /* Executions of statements beyond slow-query.max-statements, not broken down*/
+    private long untrackedExecutions;
+    /* Most slow executions first, then most total time*/
+    private List<SlowQueryDto> statements;
+}
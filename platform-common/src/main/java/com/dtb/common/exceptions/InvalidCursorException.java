@@ -0,0 +1,7 @@
+package com.dtb.common.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message){
+        super(message);
+    }
+}
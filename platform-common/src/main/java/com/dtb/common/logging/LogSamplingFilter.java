@@ -0,0 +1,87 @@
+package com.dtb.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caps hot-path loggers (the ones listed in loggers, matched by name prefix) at maxPerSecond
+ * messages per logger and second. Errors always pass. A logger that had messages dropped reports
+ * how many before its first message of the next second, so an outage still shows up in the logs
+ * without flooding them. Configured in logback-spring.xml from logging.sampling.*.
+ */
+public class LogSamplingFilter extends TurboFilter {
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private List<String> loggers = List.of();
+    private int maxPerSecond = 10;
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public void setLoggers(String loggers) {
+        this.loggers = Arrays.stream(loggers.split(",")).map(String::trim).filter(name -> !name.isEmpty()).toList();
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        /* Disabled levels and errors are left to the normal level check*/
+        if (level == null || level.isGreaterOrEqual(Level.ERROR) || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !isSampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.computeIfAbsent(logger.getName(), name -> new Window());
+        long now = System.nanoTime();
+        long dropped = window.roll(now);
+        if (dropped > 0) {
+            /* Goes through this filter again and counts against the new window*/
+            logger.warn("Dropped {} log messages of this logger in the previous window (logging.sampling.max-per-second={})",
+                    dropped, maxPerSecond);
+        }
+        return window.tryAcquire(maxPerSecond) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isSampled(String loggerName) {
+        for (String prefix : loggers) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Window {
+        private long start = System.nanoTime();
+        private int count;
+        private long dropped;
+
+        /* Starts a new window when the current one is over, returns the messages dropped in the finished one*/
+        synchronized long roll(long now) {
+            if (now - start < WINDOW_NANOS) {
+                return 0;
+            }
+            long finished = dropped;
+            start = now;
+            count = 0;
+            dropped = 0;
+            return finished;
+        }
+
+        synchronized boolean tryAcquire(int max) {
+            if (count < max) {
+                count++;
+                return true;
+            }
+            dropped++;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.dtb.common.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Periodically refreshed row count of the main table of a service (pagination.approximate-count.table),
+ * used as the total of unfiltered list requests instead of a COUNT(*) per request. On Postgres the planner
+ * statistics (pg_class.reltuples) are read; other databases and never-analyzed tables get an exact count.
+ */
+@Slf4j
+public class RowCountEstimator {
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final Duration maxStaleness;
+    private volatile Estimate estimate;
+
+    public RowCountEstimator(JdbcTemplate jdbcTemplate, String table, Duration maxStaleness) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.maxStaleness = maxStaleness;
+    }
+
+    /* Empty until the first refresh, or when the last successful refresh is older than the staleness bound*/
+    public Optional<Estimate> getEstimate() {
+        Estimate current = estimate;
+        if (current == null || current.getAsOf().isBefore(LocalDateTime.now().minus(maxStaleness))) {
+            return Optional.empty();
+        }
+        return Optional.of(current);
+    }
+
+    @Scheduled(initialDelayString = "PT5S", fixedDelayString = "${pagination.approximate-count.refresh-interval:PT1M}")
+    public void refresh() {
+        try {
+            Long count = isPostgres() ? jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE relname = ?", Long.class, table) : null;
+            if (count == null || count < 0) {
+                count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+            }
+            estimate = new Estimate(count, LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Failed to refresh row count of {}: {}", table, e.getMessage());
+        }
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Estimate {
+        private final long count;
+        private final LocalDateTime asOf;
+
+        /* The estimate may lag behind inserts, never report fewer rows than the slice proves to exist*/
+        public long totalItemsAtLeast(Pageable pageable, Slice<?> slice) {
+            long seen = pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+            return Math.max(count, seen);
+        }
+
+        public int totalPagesAtLeast(Pageable pageable, Slice<?> slice) {
+            long totalItems = totalItemsAtLeast(pageable, slice);
+            return (int) ((totalItems + pageable.getPageSize() - 1) / pageable.getPageSize());
+        }
+    }
+}
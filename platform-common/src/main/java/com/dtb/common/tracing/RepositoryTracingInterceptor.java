@@ -0,0 +1,37 @@
+package com.dtb.common.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.function.Supplier;
+
+/* Span per repository method call, child of the current span. Stream results are only read after the span ended*/
+public class RepositoryTracingInterceptor implements MethodInterceptor {
+    private final Supplier<Tracer> tracer;
+    private final String repositoryName;
+
+    public RepositoryTracingInterceptor(Supplier<Tracer> tracer, String repositoryName) {
+        this.tracer = tracer;
+        this.repositoryName = repositoryName;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Tracer current = tracer.get();
+        Span span = current.nextSpan()
+                .name(repositoryName + "." + invocation.getMethod().getName())
+                .tag("repository", repositoryName)
+                .tag("method", invocation.getMethod().getName())
+                .start();
+        try (Tracer.SpanInScope ignored = current.withSpan(span)) {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
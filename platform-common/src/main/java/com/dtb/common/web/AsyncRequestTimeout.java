@@ -0,0 +1,24 @@
+package com.dtb.common.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.Duration;
+
+/**
+ * Timeout of one async request. spring.mvc.async.request-timeout applies to every async request, handlers whose
+ * StreamingResponseBody legitimately runs for minutes (imports, exports) call this instead of raising it for all.
+ */
+public final class AsyncRequestTimeout {
+    private AsyncRequestTimeout() {
+    }
+
+    /* Has to be called from the handler method, before the async processing of its return value starts*/
+    public static void set(HttpServletRequest request, Duration timeout) {
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(timeout.toMillis());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.dtb.common.config;
+
+import com.dtb.common.dtos.SlowQueryDto;
+import com.dtb.common.dtos.SlowQueryReportDto;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.awaitility.Awaitility.await;
+
+class SlowQueryRecorderTest {
+    private static final String FILTER = "SELECT id FROM account WHERE (? IS NULL OR iban LIKE ?) AND (? IS NULL OR bic_swift LIKE ?)";
+
+    private final SlowQueryProperties properties = new SlowQueryProperties();
+    private SlowQueryRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        properties.setThreshold(Duration.ofMillis(100));
+        properties.setExplainSampleRate(1.0);
+        recorder = new SlowQueryRecorder(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.destroy();
+    }
+
+    @Test
+    void statements_areGroupedByNullParametersAndInListsCollapsed() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:slowquery;DB_CLOSE_DELAY=-1");
+        DataSource dataSource = ProxyDataSourceBuilder.create(h2)
+                .listener(new SlowQueryListener(recorder, properties, h2))
+                .build();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("CREATE TABLE account (id BIGINT, iban VARCHAR(34), bic_swift VARCHAR(11))");
+            filter(connection, "%KE%", null);
+            filter(connection, "%KE1%", null);
+            filter(connection, null, null);
+            for (int ids = 1; ids <= 3; ids++) {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT id FROM account WHERE id IN (" + "?, ".repeat(ids - 1) + "?)")) {
+                    for (int i = 1; i <= ids; i++) {
+                        statement.setLong(i, i);
+                    }
+                    statement.executeQuery().close();
+                }
+            }
+        }
+
+        List<SlowQueryDto> statements = recorder.report().getStatements();
+        assertThat(statements).filteredOn(statement -> statement.getSql().equals(FILTER))
+                .extracting(SlowQueryDto::getNullParameters, SlowQueryDto::getExecutions)
+                .containsExactlyInAnyOrder(tuple(List.of(3, 4), 2L), tuple(List.of(1, 2, 3, 4), 1L));
+        assertThat(statements).filteredOn(statement -> statement.getSql().startsWith("SELECT id FROM account WHERE id IN"))
+                .singleElement()
+                .satisfies(statement -> {
+                    assertThat(statement.getSql()).isEqualTo("SELECT id FROM account WHERE id IN (?, ...)");
+                    assertThat(statement.getExecutions()).isEqualTo(3);
+                });
+        /* Not Postgres, so no plan*/
+        assertThat(statements).allSatisfy(statement -> assertThat(statement.getPlan()).isNull());
+    }
+
+    private static void filter(Connection connection, String iban, String bicSwift) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(FILTER)) {
+            bind(statement, 1, iban);
+            bind(statement, 2, iban);
+            bind(statement, 3, bicSwift);
+            bind(statement, 4, bicSwift);
+            statement.executeQuery().close();
+        }
+    }
+
+    private static void bind(PreparedStatement statement, int index, String value) throws Exception {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    @Test
+    void normalize_collapsesInListsOfAnySize() {
+        String inList = "?" + ", ?".repeat(29_999);
+
+        assertThat(SlowQueryListener.normalize("select c from card c where c.account_id in (" + inList + ") and c.id IN(?)"))
+                .isEqualTo("select c from card c where c.account_id in (?, ...) and c.id IN(?, ...)");
+    }
+
+    @Test
+    void slowExecution_isCountedAndSampledForAPlanOnce() {
+        recorder.record("AccountRepository.findWithFilters", FILTER, List.of(3, 4), 20, () -> "never");
+        recorder.record("AccountRepository.findWithFilters", FILTER, List.of(3, 4), 350, () -> "Seq Scan on account");
+        recorder.record("AccountRepository.findWithFilters", FILTER, List.of(3, 4), 150, () -> "Index Scan");
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> recorder.report().getStatements().get(0).getPlanCapturedAt() != null);
+        recorder.record("AccountRepository.findWithFilters", FILTER, List.of(3, 4), 400, () -> "within the interval");
+
+        SlowQueryDto statement = recorder.report().getStatements().get(0);
+        assertThat(statement.getExecutions()).isEqualTo(4);
+        assertThat(statement.getSlowExecutions()).isEqualTo(3);
+        assertThat(statement.getMaxMillis()).isEqualTo(400);
+        assertThat(statement.getMeanMillis()).isEqualTo(230.0);
+        assertThat(statement.getLastSlowAt()).isNotNull();
+        assertThat(statement.getPlan()).isIn("Seq Scan on account", "Index Scan");
+    }
+
+    @Test
+    void report_listsMostSlowExecutionsFirstAndCapsStatements() {
+        properties.setMaxStatements(2);
+        recorder.record("AccountRepository.findAll", "SELECT 1", List.of(), 500, null);
+        recorder.record("AccountRepository.findWithFilters", FILTER, List.of(), 300, null);
+        recorder.record("AccountRepository.findWithFilters", FILTER, List.of(), 300, null);
+        recorder.record("AccountRepository.findById", "SELECT 2", List.of(), 900, null);
+
+        SlowQueryReportDto report = recorder.report();
+        assertThat(report.getThresholdMillis()).isEqualTo(100);
+        assertThat(report.getUntrackedExecutions()).isEqualTo(1);
+        assertThat(report.getStatements()).extracting(SlowQueryDto::getRepositoryMethod)
+                .containsExactly("AccountRepository.findWithFilters", "AccountRepository.findAll");
+
+        recorder.reset();
+        assertThat(recorder.report().getStatements()).isEmpty();
+    }
+}
@@ -0,0 +1,143 @@
+package com.dtb.common.config;
+
+import com.dtb.common.tracing.RepositoryTracingInterceptor;
+import com.dtb.common.tracing.SpanFileExporter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TracingAutoConfigurationTest {
+    /* Stands in for a Spring Data repository interface*/
+    interface LookupRepository {
+        String findByIban(String iban);
+    }
+
+    private final InMemorySpanExporter spans = InMemorySpanExporter.create();
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(spans)).build();
+        tracer = new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> { });
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    private LookupRepository tracedRepository(LookupRepository target) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(LookupRepository.class);
+        proxyFactory.addAdvice(new RepositoryTracingInterceptor(() -> tracer, "LookupRepository"));
+        return (LookupRepository) proxyFactory.getProxy();
+    }
+
+    @Test
+    void repositoryCall_isSpanUnderTheCurrentRequest() {
+        LookupRepository repository = tracedRepository(iban -> "account-" + iban);
+
+        Span request = tracer.nextSpan().name("http get /api/accounts").start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(request)) {
+            assertThat(repository.findByIban("KE1")).isEqualTo("account-KE1");
+        } finally {
+            request.end();
+        }
+
+        List<SpanData> finished = spans.getFinishedSpanItems();
+        assertThat(finished).hasSize(2);
+        SpanData query = finished.get(0);
+        assertThat(query.getName()).isEqualTo("LookupRepository.findByIban");
+        assertThat(query.getTraceId()).isEqualTo(request.context().traceId());
+        assertThat(query.getParentSpanId()).isEqualTo(request.context().spanId());
+        assertThat(query.getAttributes().asMap().values()).contains("LookupRepository", "findByIban");
+    }
+
+    @Test
+    void failingRepositoryCall_marksTheSpanAsError() {
+        LookupRepository repository = tracedRepository(iban -> {
+            throw new IllegalStateException("connection refused");
+        });
+
+        assertThatThrownBy(() -> repository.findByIban("KE1")).isInstanceOf(IllegalStateException.class);
+
+        assertThat(spans.getFinishedSpanItems()).singleElement()
+                .satisfies(span -> assertThat(span.getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR));
+    }
+
+    @Test
+    void spanFileExporter_writesOneLinePerSpanLinkedByParent(@TempDir Path dir) throws Exception {
+        Span request = tracer.nextSpan().name("http get /api/accounts").start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(request)) {
+            tracedRepository(iban -> "account").findByIban("KE1");
+        } finally {
+            request.end();
+        }
+        Path file = dir.resolve("spans.jsonl");
+        SpanFileExporter exporter = new SpanFileExporter(file);
+
+        assertThat(exporter.export(spans.getFinishedSpanItems()).isSuccess()).isTrue();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        JsonNode query = objectMapper.readTree(lines.get(0));
+        JsonNode root = objectMapper.readTree(lines.get(1));
+        assertThat(query.get("name").asText()).isEqualTo("LookupRepository.findByIban");
+        assertThat(query.get("parentSpanId").asText()).isEqualTo(root.get("spanId").asText());
+        assertThat(query.get("traceId").asText()).isEqualTo(root.get("traceId").asText());
+        assertThat(root.get("parentSpanId").isNull()).isTrue();
+        assertThat(query.get("durationMicros").asLong()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void spanFileExporters_sharingAFile_neverInterleaveLines(@TempDir Path dir) throws Exception {
+        for (int i = 0; i < 50; i++) {
+            Span span = tracer.nextSpan().name("span-" + i).tag("padding", "x".repeat(2000)).start();
+            span.end();
+        }
+        List<SpanData> batch = spans.getFinishedSpanItems();
+        Path file = dir.resolve("spans.jsonl");
+
+        /* Two exporters with their own channels, as two services writing to the same file*/
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            SpanFileExporter exporter = new SpanFileExporter(file);
+            writers.add(CompletableFuture.runAsync(() -> {
+                for (int round = 0; round < 20; round++) {
+                    assertThat(exporter.export(batch).isSuccess()).isTrue();
+                }
+            }));
+        }
+        CompletableFuture.allOf(writers.toArray(CompletableFuture[]::new)).get();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2 * 20 * 50);
+        for (String line : lines) {
+            assertThat(objectMapper.readTree(line).get("name").asText()).startsWith("span-");
+        }
+    }
+}
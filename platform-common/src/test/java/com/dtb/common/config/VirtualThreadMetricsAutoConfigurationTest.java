@@ -0,0 +1,27 @@
+package com.dtb.common.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.FilteredClassLoader;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadMetricsAutoConfigurationTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(VirtualThreadMetricsAutoConfiguration.class));
+
+    @Test
+    void platformThreads_noVirtualThreadMetrics() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(MeterBinder.class));
+    }
+
+    /* A build without the java21 profile, the configuration must not touch the missing class*/
+    @Test
+    void virtualThreadsWithoutMicrometerJava21_noVirtualThreadMetrics() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .withClassLoader(new FilteredClassLoader(VirtualThreadMetricsAutoConfiguration.VIRTUAL_THREAD_METRICS))
+                .run(context -> assertThat(context).hasNotFailed().doesNotHaveBean(MeterBinder.class));
+    }
+}
@@ -0,0 +1,72 @@
+package com.dtb.common.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LogSamplingFilterTest {
+    private final LoggerContext context = new LoggerContext();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        LogSamplingFilter filter = new LogSamplingFilter();
+        filter.setLoggers("com.dtb.accounts.services.CardHydrator, com.dtb.accounts.feigns");
+        filter.setMaxPerSecond(3);
+        filter.start();
+        context.addTurboFilter(filter);
+        appender.setContext(context);
+        appender.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+    }
+
+    @Test
+    void sampledLogger_isCappedPerSecondButErrorsPass() {
+        Logger hydrator = context.getLogger("com.dtb.accounts.services.CardHydrator");
+
+        for (int i = 0; i < 10; i++) {
+            hydrator.warn("Card lookup for account {} failed", i);
+        }
+        hydrator.error("card-service is down");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "Card lookup for account 0 failed",
+                "Card lookup for account 1 failed",
+                "Card lookup for account 2 failed",
+                "card-service is down");
+    }
+
+    @Test
+    void loggersNotListed_areNotSampled() {
+        Logger service = context.getLogger("com.dtb.accounts.services.AccountServiceImpl");
+
+        for (int i = 0; i < 10; i++) {
+            service.info("Updating account {}", i);
+        }
+
+        assertThat(appender.list).hasSize(10);
+    }
+
+    @Test
+    void droppedMessages_areReportedInTheNextWindow() throws InterruptedException {
+        Logger client = context.getLogger("com.dtb.accounts.feigns.CardServiceClient");
+        for (int i = 0; i < 5; i++) {
+            client.warn("call {} failed", i);
+        }
+
+        Thread.sleep(1100);
+        client.warn("call 5 failed");
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+                "call 0 failed",
+                "call 1 failed",
+                "call 2 failed",
+                "Dropped 2 log messages of this logger in the previous window (logging.sampling.max-per-second=3)",
+                "call 5 failed");
+    }
+}
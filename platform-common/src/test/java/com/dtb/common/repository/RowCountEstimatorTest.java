@@ -0,0 +1,37 @@
+package com.dtb.common.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowCountEstimatorTest {
+
+    @Test
+    void estimate_isTheTotalWhileThePageFitsInIt() {
+        RowCountEstimator.Estimate estimate = new RowCountEstimator.Estimate(95, LocalDateTime.now());
+        Pageable pageable = PageRequest.of(2, 10);
+
+        assertThat(estimate.totalItemsAtLeast(pageable, new SliceImpl<>(Collections.nCopies(10, "row"), pageable, true)))
+                .isEqualTo(95);
+        assertThat(estimate.totalPagesAtLeast(pageable, new SliceImpl<>(Collections.nCopies(10, "row"), pageable, true)))
+                .isEqualTo(10);
+    }
+
+    @Test
+    void laggingEstimate_neverReportsFewerRowsThanThePageProves() {
+        RowCountEstimator.Estimate estimate = new RowCountEstimator.Estimate(5, LocalDateTime.now());
+        Pageable pageable = PageRequest.of(3, 10);
+        SliceImpl<String> slice = new SliceImpl<>(Collections.nCopies(10, "row"), pageable, true);
+
+        assertThat(estimate.totalItemsAtLeast(pageable, slice)).isEqualTo(41);
+        assertThat(estimate.totalPagesAtLeast(pageable, slice)).isEqualTo(5);
+        assertThat(estimate.totalItemsAtLeast(pageable, new SliceImpl<>(List.of(), pageable, false))).isEqualTo(30);
+    }
+}